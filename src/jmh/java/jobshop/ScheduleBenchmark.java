@@ -0,0 +1,46 @@
+package jobshop;
+
+import jobshop.encodings.Task;
+import jobshop.solvers.GreedySolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ScheduleBenchmark {
+
+    /** One instance of each family of the instances directory */
+    @Param({"ft10", "la21", "ta21", "swv01", "yn1"})
+    public String instanceName;
+
+    Schedule schedule;
+
+    @Setup
+    public void setup() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/", instanceName));
+        schedule = new GreedySolver(true, true, false).solve(instance, -1).schedule;
+    }
+
+    @Benchmark
+    public List<Task> criticalPath() {
+        return schedule.criticalPath();
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return schedule.isValid();
+    }
+
+    @Benchmark
+    public boolean isValidNaive() {
+        return schedule.isValidNaive();
+    }
+}
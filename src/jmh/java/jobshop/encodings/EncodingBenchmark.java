@@ -0,0 +1,65 @@
+package jobshop.encodings;
+
+import jobshop.Instance;
+import jobshop.Schedule;
+import jobshop.solvers.GreedySolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EncodingBenchmark {
+
+    /** One instance of each family of the instances directory */
+    @Param({"ft10", "la21", "ta21", "swv01", "yn1"})
+    public String instanceName;
+
+    Instance instance;
+    Schedule schedule;
+    JobNumbers jobNumbers;
+    ResourceOrder resourceOrder;
+    int[] nextTask;
+    int[] jobEnd;
+    int[] machineEnd;
+
+    @Setup
+    public void setup() throws IOException {
+        instance = Instance.fromFile(Paths.get("instances/", instanceName));
+        schedule = new GreedySolver(true, true, false).solve(instance, -1).schedule;
+        jobNumbers = new JobNumbers(instance);
+        jobNumbers.fromSchedule(schedule);
+        resourceOrder = new ResourceOrder(schedule);
+        nextTask = new int[instance.numJobs];
+        jobEnd = new int[instance.numJobs];
+        machineEnd = new int[instance.numMachines];
+    }
+
+    @Benchmark
+    public Schedule jobNumbersToSchedule() {
+        return jobNumbers.toSchedule();
+    }
+
+    @Benchmark
+    public int jobNumbersMakespan() {
+        return jobNumbers.makespan(nextTask, jobEnd, machineEnd);
+    }
+
+    @Benchmark
+    public Schedule resourceOrderToSchedule() {
+        return resourceOrder.toSchedule();
+    }
+
+    @Benchmark
+    public ResourceOrder resourceOrderFromSchedule() {
+        ResourceOrder order = new ResourceOrder(instance);
+        order.fromSchedule(schedule);
+        return order;
+    }
+}
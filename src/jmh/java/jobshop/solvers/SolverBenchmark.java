@@ -0,0 +1,72 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.SolverMetrics;
+import jobshop.encodings.CompactResourceOrder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SolverBenchmark {
+
+    /** One instance of each family of the instances directory */
+    @Param({"ft10", "la21", "ta21", "swv01", "yn1"})
+    public String instanceName;
+
+    /** Priority rule of the greedy solver, named like in Main */
+    @Param({"lpt", "spt", "lrpt", "srpt", "est-lpt", "est-spt", "est-lrpt", "est-srpt"})
+    public String rule;
+
+    Instance instance;
+    GreedySolver greedy;
+
+    // state of the taboo search, reset before each measurement iteration
+    TabooSolver taboo;
+    IncrementalEvaluator current;
+    TabooList tabooSolutions;
+    IncrementalEvaluator[] scratches;
+    int k;
+    int bestMakespan;
+
+    @Setup
+    public void setup() throws IOException {
+        instance = Instance.fromFile(Paths.get("instances/", instanceName));
+        boolean earliestStartTimeMode = rule.startsWith("est-");
+        boolean remainingProcessingTimeMode = rule.endsWith("rpt");
+        boolean crescentOrder = rule.charAt(earliestStartTimeMode ? 4 : 0) == 's';
+        greedy = new GreedySolver(earliestStartTimeMode, remainingProcessingTimeMode, crescentOrder);
+        taboo = new TabooSolver(30, Integer.MAX_VALUE, earliestStartTimeMode, remainingProcessingTimeMode, crescentOrder);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetTabooSearch() {
+        current = new IncrementalEvaluator(new CompactResourceOrder(greedy.solve(instance, -1).schedule));
+        tabooSolutions = new TabooList(instance);
+        scratches = new IncrementalEvaluator[1];
+        k = 0;
+        bestMakespan = current.makespan();
+    }
+
+    @Benchmark
+    public Result greedySolve() {
+        return greedy.solve(instance, -1);
+    }
+
+    /** One iteration of the taboo search, from the greedy solution of the rule */
+    @Benchmark
+    public int tabooIteration() {
+        k++;
+        taboo.iterate(current, tabooSolutions, k, bestMakespan, scratches, null, null, SolverMetrics.NONE);
+        bestMakespan = Math.min(bestMakespan, current.makespan());
+        return current.makespan();
+    }
+}
@@ -0,0 +1,220 @@
+package jobshop;
+
+import jobshop.encodings.CompactResourceOrder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Arrays;
+
+/**
+ * Binary format of instances and solutions, made of little endian 32 bits integers.
+ *
+ * Every record starts with a header of four integers : the magic number of its kind, the version of the format,
+ * the number of jobs and the number of tasks per job. The header is followed by :
+ *   - instance : the machine and the duration of every task, by task id (job * numTasks + task)
+ *   - schedule : the start time of every task, by task id
+ *   - resource order : the task ids of the sequence of every machine, machine after machine
+ * Solutions do not contain their instance, they are read for an instance of the same size.
+ *
+ * Records are read and written in NIO buffers, so that many of them can be streamed in the same buffer or file.
+ * The order of the given buffers is set to little endian. Resource orders are read into an existing
+ * CompactResourceOrder, without allocating anything.
+ *
+ * Instance.fromFile reads instances in both the text and the binary formats. The main method converts text instances.
+ */
+public class BinaryFormat {
+
+    /** Version of the format written by this class, the only one it can read */
+    public static final int VERSION = 1;
+
+    /** Magic numbers, the first four bytes of a record spell its kind : "JSPI", "JSPS" or "JSPR" */
+    public static final int INSTANCE_MAGIC = magic("JSPI");
+    public static final int SCHEDULE_MAGIC = magic("JSPS");
+    public static final int ORDER_MAGIC = magic("JSPR");
+
+    static final int HEADER_SIZE = 4 * Integer.BYTES;
+
+    private static int magic(String kind) {
+        return kind.charAt(0) | kind.charAt(1) << 8 | kind.charAt(2) << 16 | kind.charAt(3) << 24;
+    }
+
+    /** Size in bytes of the record of an instance */
+    public static int instanceSize(Instance instance) {
+        return HEADER_SIZE + 2 * Integer.BYTES * instance.numJobs * instance.numTasks;
+    }
+
+    /** Size in bytes of the record of a schedule or of a resource order of the given instance */
+    public static int solutionSize(Instance instance) {
+        return HEADER_SIZE + Integer.BYTES * instance.numJobs * instance.numTasks;
+    }
+
+    public static void writeInstance(Instance instance, ByteBuffer buffer) {
+        writeHeader(buffer, INSTANCE_MAGIC, instance);
+        for(int j = 0; j < instance.numJobs; j++) {
+            for(int t = 0; t < instance.numTasks; t++) {
+                buffer.putInt(instance.machines[j][t]);
+                buffer.putInt(instance.durations[j][t]);
+            }
+        }
+    }
+
+    public static Instance readInstance(ByteBuffer buffer) {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        checkHeader(buffer, INSTANCE_MAGIC, "an instance");
+        int numJobs = buffer.getInt();
+        int numTasks = buffer.getInt();
+        if(numJobs < 0 || numTasks < 0 || (long) 2 * Integer.BYTES * numJobs * numTasks > buffer.remaining()) {
+            throw new RuntimeException("Truncated instance of " + numJobs + " jobs and " + numTasks + " tasks");
+        }
+
+        Instance instance = new Instance(numJobs, numTasks);
+        for(int j = 0; j < numJobs; j++) {
+            int[] machines = instance.machines[j];
+            int[] durations = instance.durations[j];
+            for(int t = 0; t < numTasks; t++) {
+                machines[t] = buffer.getInt();
+                durations[t] = buffer.getInt();
+                if(machines[t] < 0 || machines[t] >= numTasks) {
+                    throw new RuntimeException("Invalid machine " + machines[t] + " for task (" + j + "," + t + ")");
+                }
+            }
+        }
+        instance.buildIndex();
+        return instance;
+    }
+
+    public static void writeSchedule(Schedule schedule, ByteBuffer buffer) {
+        writeHeader(buffer, SCHEDULE_MAGIC, schedule.pb);
+        IntBuffer ints = buffer.asIntBuffer();
+        for(int[] jobTimes : schedule.times) {
+            ints.put(jobTimes);
+        }
+        buffer.position(buffer.position() + Integer.BYTES * ints.position());
+    }
+
+    public static Schedule readSchedule(Instance instance, ByteBuffer buffer) {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        checkHeader(buffer, SCHEDULE_MAGIC, "a schedule");
+        checkSize(buffer, instance);
+        IntBuffer ints = buffer.asIntBuffer();
+        int[][] times = new int[instance.numJobs][instance.numTasks];
+        for(int[] jobTimes : times) {
+            ints.get(jobTimes);
+        }
+        buffer.position(buffer.position() + Integer.BYTES * ints.position());
+        return new Schedule(instance, times);
+    }
+
+    public static void writeOrder(CompactResourceOrder order, ByteBuffer buffer) {
+        writeHeader(buffer, ORDER_MAGIC, order.instance);
+        buffer.asIntBuffer().put(order.tasksOrderPerMachine);
+        buffer.position(buffer.position() + Integer.BYTES * order.tasksOrderPerMachine.length);
+    }
+
+    /**
+     * Reads a resource order into the given one, which must be of an instance of the same size.
+     * Every task id must appear exactly once, in the sequence of its machine, otherwise the given order is left
+     * in an unspecified state and an exception is thrown.
+     */
+    public static void readOrder(ByteBuffer buffer, CompactResourceOrder order) {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        checkHeader(buffer, ORDER_MAGIC, "a resource order");
+        checkSize(buffer, order.instance);
+        buffer.asIntBuffer().get(order.tasksOrderPerMachine);
+        buffer.position(buffer.position() + Integer.BYTES * order.tasksOrderPerMachine.length);
+
+        int numJobs = order.instance.numJobs;
+        Arrays.fill(order.positions, -1);
+        for(int i = 0; i < order.tasksOrderPerMachine.length; i++) {
+            int id = order.tasksOrderPerMachine[i];
+            if(id < 0 || id >= order.positions.length || order.instance.machineOf(id) != i / numJobs) {
+                throw new RuntimeException("Invalid task id " + id + " in the sequence of machine " + i / numJobs);
+            }
+            if(order.positions[id] >= 0) {
+                throw new RuntimeException("Task id " + id + " appears twice in the sequence of machine " + i / numJobs);
+            }
+            order.positions[id] = i % numJobs;
+        }
+    }
+
+    /** Writes the binary record of an instance in a file. */
+    public static void writeInstance(Instance instance, Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(instanceSize(instance));
+        writeInstance(instance, buffer);
+        buffer.flip();
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while(buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /** Returns true if the buffer starts with the magic number of an instance, without moving its position. */
+    static boolean isInstance(ByteBuffer buffer) {
+        return buffer.remaining() >= Integer.BYTES
+                && buffer.order(ByteOrder.LITTLE_ENDIAN).getInt(buffer.position()) == INSTANCE_MAGIC;
+    }
+
+    private static void writeHeader(ByteBuffer buffer, int magic, Instance instance) {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(magic);
+        buffer.putInt(VERSION);
+        buffer.putInt(instance.numJobs);
+        buffer.putInt(instance.numTasks);
+    }
+
+    /** Reads the magic number and the version of a record. */
+    private static void checkHeader(ByteBuffer buffer, int magic, String kind) {
+        if(buffer.remaining() < HEADER_SIZE || buffer.getInt() != magic) {
+            throw new RuntimeException("The buffer does not contain " + kind);
+        }
+        int version = buffer.getInt();
+        if(version != VERSION) {
+            throw new RuntimeException("Unsupported version " + version + " of the binary format, expected " + VERSION);
+        }
+    }
+
+    /** Reads the size of a solution, which must be the size of the given instance. */
+    private static void checkSize(ByteBuffer buffer, Instance instance) {
+        int numJobs = buffer.getInt();
+        int numTasks = buffer.getInt();
+        if(numJobs != instance.numJobs || numTasks != instance.numTasks) {
+            throw new RuntimeException("Solution of size " + numJobs + "x" + numTasks + " for an instance of size "
+                    + instance.numJobs + "x" + instance.numTasks);
+        }
+        if(buffer.remaining() < (long) Integer.BYTES * numJobs * numTasks) {
+            throw new RuntimeException("Truncated solution of size " + numJobs + "x" + numTasks);
+        }
+    }
+
+    /**
+     * Converts text instances to the binary format : "BinaryFormat source target" converts the file source,
+     * or every file of the directory source, into a file of the same name in the directory target.
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length != 2) {
+            System.err.println("usage: BinaryFormat <instance file or directory> <target directory>");
+            System.exit(1);
+        }
+        Path source = Paths.get(args[0]);
+        Path target = Paths.get(args[1]);
+        Files.createDirectories(target);
+        if(Files.isDirectory(source)) {
+            try(DirectoryStream<Path> files = Files.newDirectoryStream(source)) {
+                for(Path file : files) {
+                    // the instances directory also holds its documentation
+                    if(Files.isRegularFile(file) && !file.toString().endsWith(".md")) {
+                        writeInstance(Instance.fromFile(file), target.resolve(file.getFileName()));
+                    }
+                }
+            }
+        } else {
+            writeInstance(Instance.fromFile(source), target.resolve(source.getFileName()));
+        }
+    }
+}
@@ -2,12 +2,11 @@ package jobshop;
 
 import jobshop.encodings.Task;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
-import java.util.Iterator;
-import java.util.Scanner;
-import java.util.stream.Collectors;
 
 public class Instance {
 
@@ -23,6 +22,15 @@ public class Instance {
     final int[][] durations;
     final int[][] machines;
 
+    // tables derived from durations and machines, built once by buildIndex() when the instance is loaded
+    /** duration and machine of every task id (job * numTasks + task) */
+    final int[] taskDurations;
+    final int[] taskMachines;
+    /** tasksWithMachine[job * numMachines + machine] is the task of the job executing on the machine */
+    final int[] tasksWithMachine;
+    /** remainingProcessingTimes[job * numTasks + task] is the sum of the durations of the task and of the following ones in the job */
+    final int[] remainingProcessingTimes;
+
     public int duration(int job, int task) {
         return durations[job][task];
     }
@@ -36,13 +44,31 @@ public class Instance {
         return this.machine(t.job, t.task);
     }
 
+    /** Returns the id of a task, used to index flat arrays : job * numTasks + task. */
+    public int taskId(int job, int task) {
+        return job * numTasks + task;
+    }
+    /** Duration of the task of the given id. */
+    public int durationOf(int taskId) {
+        return taskDurations[taskId];
+    }
+    /** Machine of the task of the given id. */
+    public int machineOf(int taskId) {
+        return taskMachines[taskId];
+    }
+
+    /** Sum of the durations of the given task and of all the tasks following it in its job. */
+    public int remainingProcessingTime(int job, int task) {
+        return remainingProcessingTimes[job * numTasks + task];
+    }
+
     /** among the tasks of the given job, returns the task index that uses the given machine. */
     public int task_with_machine(int job, int wanted_machine) {
-        for(int task = 0 ; task < numTasks ; task++) {
-            if(machine(job, task) == wanted_machine)
-                return task;
+        int task = tasksWithMachine[job * numMachines + wanted_machine];
+        if(task < 0) {
+            throw new RuntimeException("No task targeting machine "+wanted_machine+" on job "+job);
         }
-        throw new RuntimeException("No task targeting machine "+wanted_machine+" on job "+job);
+        return task;
     }
 
     Instance(int numJobs, int numTasks) {
@@ -52,31 +78,158 @@ public class Instance {
 
         durations = new int[numJobs][numTasks];
         machines = new int[numJobs][numTasks];
+
+        taskDurations = new int[numJobs * numTasks];
+        taskMachines = new int[numJobs * numTasks];
+        tasksWithMachine = new int[numJobs * numMachines];
+        remainingProcessingTimes = new int[numJobs * numTasks];
+    }
+
+    /** Builds the derived tables, must be called once durations and machines are filled. */
+    void buildIndex() {
+        Arrays.fill(tasksWithMachine, -1);
+        for(int job = 0 ; job < numJobs ; job++) {
+            int remainingProcessingTime = 0;
+            for(int task = numTasks - 1 ; task >= 0 ; task--) {
+                int id = taskId(job, task);
+                taskDurations[id] = durations[job][task];
+                taskMachines[id] = machines[job][task];
+                tasksWithMachine[job * numMachines + machines[job][task]] = task;
+                remainingProcessingTime += durations[job][task];
+                remainingProcessingTimes[id] = remainingProcessingTime;
+            }
+        }
     }
 
-    /** Parses a instance from a file. */
+    /** Files larger than this are memory mapped, smaller ones are read at once */
+    static final int MAPPING_THRESHOLD = 1 << 16;
+
+    /**
+     * Parses a instance from a file : lines starting with '#' are comments, the first other line holds the number of
+     * jobs and tasks, and each of the following ones holds the (machine, duration) pairs of the tasks of a job.
+     *
+     * Integers are parsed directly from the bytes of the file into the tables of the instance,
+     * large files being memory mapped instead of copied. Files in the format of BinaryFormat are read as well.
+     */
     public static Instance fromFile(Path path) throws IOException {
-        Iterator<String> lines = Files.readAllLines(path).stream()
-                .filter(l -> !l.startsWith("#"))
-                .collect(Collectors.toList())
-                .iterator();
-
-        Scanner header = new Scanner(lines.next());
-        int num_jobs = header.nextInt();
-        int num_tasks = header.nextInt();
+        ByteBuffer buffer;
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if(size > MAPPING_THRESHOLD) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } else {
+                buffer = ByteBuffer.allocate((int) size);
+                while(buffer.hasRemaining()) {
+                    if(channel.read(buffer) < 0) {
+                        break;
+                    }
+                }
+                buffer.flip();
+            }
+        }
+
+        if(BinaryFormat.isInstance(buffer)) {
+            return BinaryFormat.readInstance(buffer);
+        }
+
+        Parser parser = new Parser(path, buffer);
+        parser.skipComments();
+        int num_jobs = parser.nextInt();
+        int num_tasks = parser.nextInt();
         Instance pb = new Instance(num_jobs, num_tasks);
 
         for(int job = 0 ; job<num_jobs ; job++) {
-            Scanner line = new Scanner(lines.next());
+            parser.nextLine();
+            int[] machines = pb.machines[job];
+            int[] durations = pb.durations[job];
             for(int task = 0 ; task < num_tasks ; task++) {
-                pb.machines[job][task] = line.nextInt();
-                pb.durations[job][task] = line.nextInt();
+                machines[task] = parser.nextInt();
+                durations[task] = parser.nextInt();
             }
         }
+        pb.buildIndex();
 
         return pb;
     }
 
+    /** Reads the integers of an instance file line by line, the rest of a line being ignored after its last read integer. */
+    private static final class Parser {
+        final Path path;
+        final ByteBuffer buffer;
+        int line = 1;
+
+        Parser(Path path, ByteBuffer buffer) {
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+        /** Skips the comment lines starting at the current position. */
+        void skipComments() {
+            while(buffer.hasRemaining() && buffer.get(buffer.position()) == '#') {
+                skipLine();
+            }
+        }
+
+        /** Moves to the beginning of the next line which is not a comment. */
+        void nextLine() throws IOException {
+            skipLine();
+            skipComments();
+            if(!buffer.hasRemaining()) {
+                throw new IOException(path + ": unexpected end of file at line " + line);
+            }
+        }
+
+        private void skipLine() {
+            while(buffer.hasRemaining()) {
+                byte b = buffer.get();
+                if(b == '\n' || b == '\r') {
+                    if(b == '\r' && buffer.hasRemaining() && buffer.get(buffer.position()) == '\n') {
+                        buffer.get();
+                    }
+                    line++;
+                    return;
+                }
+            }
+        }
+
+        /** Parses the next integer of the current line. */
+        int nextInt() throws IOException {
+            while(buffer.hasRemaining() && isBlank(buffer.get(buffer.position()))) {
+                buffer.get();
+            }
+            boolean negative = buffer.hasRemaining() && buffer.get(buffer.position()) == '-';
+            if(negative) {
+                buffer.get();
+            }
+            if(!buffer.hasRemaining() || !isDigit(buffer.get(buffer.position()))) {
+                throw new IOException(path + ": integer expected at line " + line);
+            }
+            long value = 0;
+            while(buffer.hasRemaining() && isDigit(buffer.get(buffer.position()))) {
+                value = 10 * value + (buffer.get() - '0');
+                if(value > Integer.MAX_VALUE) {
+                    throw new IOException(path + ": integer too large at line " + line);
+                }
+            }
+            if(buffer.hasRemaining() && !isBlank(buffer.get(buffer.position())) && !isEndOfLine(buffer.get(buffer.position()))) {
+                throw new IOException(path + ": integer expected at line " + line);
+            }
+            return (int) (negative ? -value : value);
+        }
+
+        private static boolean isDigit(byte b) {
+            return b >= '0' && b <= '9';
+        }
+
+        private static boolean isBlank(byte b) {
+            return b == ' ' || b == '\t' || b == '\f';
+        }
+
+        private static boolean isEndOfLine(byte b) {
+            return b == '\n' || b == '\r';
+        }
+    }
+
     public static boolean areMatrixEqual(int[][] a, int[][] b) {
         boolean areMatrixEqual = a.length == b.length;
         for(int i=0; i<a.length && areMatrixEqual; i++) {
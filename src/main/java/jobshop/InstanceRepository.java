@@ -0,0 +1,180 @@
+package jobshop;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Instances of a directory, parsed once and kept in a cache with their derived tables.
+ *
+ * The cache is a LRU bounded by the estimated memory footprint of the instances it holds : when adding an instance
+ * exceeds the capacity, the least recently used ones are evicted. An instance larger than the capacity is returned
+ * without being cached. The repository can be used by several threads, an instance being parsed at most once at a time.
+ *
+ * Best known results are those of BestKnownResult, for instances of the same names.
+ */
+public class InstanceRepository {
+
+    /** Default capacity, enough for all the instances of the instances directory */
+    public static final long DEFAULT_CAPACITY = 256L << 20;
+
+    private final Path directory;
+    private final long capacity;
+
+    /** Cached instances, from the least to the most recently used */
+    private final LinkedHashMap<String, Instance> cache = new LinkedHashMap<>(16, 0.75f, true);
+    /** Instances being parsed, other threads wait for them instead of parsing them again */
+    private final Set<String> loading = new HashSet<>();
+    private long size = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * @param directory directory of the instance files, named after their instance
+     * @param capacity maximum estimated footprint of the cached instances, in bytes
+     */
+    public InstanceRepository(Path directory, long capacity) {
+        this.directory = directory;
+        this.capacity = capacity;
+    }
+
+    public InstanceRepository(Path directory) {
+        this(directory, DEFAULT_CAPACITY);
+    }
+
+    /** Returns the instance of the given name, parsing its file if it is not cached. */
+    public Instance get(String name) throws IOException {
+        synchronized(cache) {
+            while(loading.contains(name)) {
+                try {
+                    cache.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+            }
+            Instance instance = cache.get(name);
+            if(instance != null) {
+                hits++;
+                return instance;
+            }
+            misses++;
+            loading.add(name);
+        }
+
+        Instance instance = null;
+        try {
+            instance = Instance.fromFile(directory.resolve(name));
+        } finally {
+            synchronized(cache) {
+                loading.remove(name);
+                if(instance != null) {
+                    add(name, instance);
+                }
+                cache.notifyAll();
+            }
+        }
+        return instance;
+    }
+
+    /** Adds an instance to the cache and evicts the least recently used ones until the capacity is respected. */
+    private void add(String name, Instance instance) {
+        long footprint = footprint(instance);
+        if(footprint > capacity) {
+            return;
+        }
+        cache.put(name, instance);
+        size += footprint;
+        Iterator<Instance> eldest = cache.values().iterator();
+        while(size > capacity) {
+            size -= footprint(eldest.next());
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Parses the given instances with the given number of threads, so that the next calls to get do not parse them
+     * (as long as they fit in the cache).
+     */
+    public void preload(Collection<String> names, int parallelism) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<Instance>> tasks = new ArrayList<>(names.size());
+            for(String name : names) {
+                tasks.add(pool.submit(() -> get(name)));
+            }
+            for(ForkJoinTask<Instance> task : tasks) {
+                task.get();
+            }
+        } catch (ExecutionException e) {
+            // the pool wraps the exceptions of the parsing in runtime exceptions
+            for(Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                if(cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** Parses all the instances of BestKnownResult in parallel, on all available processors. */
+    public void preloadAll() throws IOException {
+        preload(Arrays.asList(BestKnownResult.instances), Runtime.getRuntime().availableProcessors());
+    }
+
+    public boolean isKnown(String name) {
+        return BestKnownResult.isKnown(name);
+    }
+
+    /** Returns the best known makespan of the given instance. */
+    public int bestKnown(String name) {
+        return BestKnownResult.of(name);
+    }
+
+    /**
+     * Estimated memory footprint of an instance in bytes : the four ints per task of the derived tables,
+     * the two ints per task of the durations and machines, and the headers of their rows.
+     */
+    static long footprint(Instance instance) {
+        long tasks = (long) instance.numJobs * instance.numTasks;
+        return 6 * Integer.BYTES * tasks + 2 * 16L * instance.numJobs + 128;
+    }
+
+    /** Estimated memory footprint of the cached instances in bytes */
+    public long size() {
+        synchronized(cache) {
+            return size;
+        }
+    }
+
+    /** Number of calls to get that found their instance in the cache */
+    public long hits() {
+        synchronized(cache) {
+            return hits;
+        }
+    }
+
+    /** Number of calls to get that parsed their instance */
+    public long misses() {
+        synchronized(cache) {
+            return misses;
+        }
+    }
+
+    /** Number of instances evicted from the cache */
+    public long evictions() {
+        synchronized(cache) {
+            return evictions;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package jobshop;
+
+/**
+ * Lower bounds of the optimal makespan of an instance.
+ *
+ * A solver whose best solution reaches one of these bounds has found an optimal solution and can stop.
+ */
+public class LowerBound {
+
+    /** Returns the largest sum of the durations of the tasks of a job. */
+    public static int maxJobLength(Instance instance) {
+        int bound = 0;
+        for(int j = 0; j < instance.numJobs; j++) {
+            bound = Math.max(bound, instance.remainingProcessingTime(j, 0));
+        }
+        return bound;
+    }
+
+    /** Returns the largest sum of the durations of the tasks executed on a machine. */
+    public static int maxMachineLoad(Instance instance) {
+        int[] loads = new int[instance.numMachines];
+        int bound = 0;
+        for(int id = 0; id < instance.numJobs * instance.numTasks; id++) {
+            loads[instance.machineOf(id)] += instance.durationOf(id);
+            bound = Math.max(bound, loads[instance.machineOf(id)]);
+        }
+        return bound;
+    }
+
+    /**
+     * Returns the largest optimal makespan of the one-machine preemptive problems of the instance : the tasks of each
+     * machine are released at their head, the sum of the durations of the previous tasks of their job, and must be
+     * followed by their tail, the sum of the durations of the next tasks of their job.
+     */
+    public static int jacksonPreemptive(Instance instance) {
+        int numNodes = instance.numJobs * instance.numTasks;
+        int[] heads = new int[numNodes];
+        int[] tails = new int[numNodes];
+        int[] machineTasks = new int[instance.numMachines * instance.numJobs];
+        int[] machineSizes = new int[instance.numMachines];
+        for(int j = 0; j < instance.numJobs; j++) {
+            for(int t = 0; t < instance.numTasks; t++) {
+                int id = instance.taskId(j, t);
+                heads[id] = instance.remainingProcessingTime(j, 0) - instance.remainingProcessingTime(j, t);
+                tails[id] = instance.remainingProcessingTime(j, t) - instance.durationOf(id);
+                int machine = instance.machineOf(id);
+                machineTasks[machine * instance.numJobs + machineSizes[machine]++] = id;
+            }
+        }
+
+        int[] remaining = new int[numNodes];
+        int[] heap = new int[instance.numJobs];
+        int bound = 0;
+        for(int machine = 0; machine < instance.numMachines; machine++) {
+            bound = Math.max(bound, preemptiveMakespan(instance, machineTasks, machine * instance.numJobs, machineSizes[machine],
+                    heads, tails, remaining, heap));
+        }
+        return bound;
+    }
+
+    /** Returns the best of the lower bounds of this class. */
+    public static int of(Instance instance) {
+        return Math.max(Math.max(maxJobLength(instance), maxMachineLoad(instance)), jacksonPreemptive(instance));
+    }
+
+    /**
+     * Returns the makespan of Jackson's preemptive schedule of the given tasks of a machine : at any time, the available
+     * task with the largest tail is processed. This is the optimal makespan of the one-machine problem where tasks
+     * are released at their head, must be followed by their tail, and can be interrupted.
+     * Nothing is allocated : all arrays are provided by the caller.
+     *
+     * @param tasks task ids, the tasks of the machine are the elements [from, from + size), which are sorted by head
+     * @param heads head of every task id
+     * @param tails tail of every task id
+     * @param remaining scratch buffer of one element per task id
+     * @param heap scratch buffer of at least size elements
+     */
+    public static int preemptiveMakespan(Instance instance, int[] tasks, int from, int size,
+                                         int[] heads, int[] tails, int[] remaining, int[] heap) {
+        // insertion sort by head, the tasks of a machine are few
+        for(int i = from + 1; i < from + size; i++) {
+            int task = tasks[i];
+            int k = i;
+            while(k > from && heads[tasks[k - 1]] > heads[task]) {
+                tasks[k] = tasks[k - 1];
+                k--;
+            }
+            tasks[k] = task;
+        }
+
+        int makespan = 0;
+        int heapSize = 0;
+        int next = from;
+        int time = 0;
+        while(next < from + size || heapSize > 0) {
+            if(heapSize == 0) {
+                time = Math.max(time, heads[tasks[next]]);
+            }
+            while(next < from + size && heads[tasks[next]] <= time) {
+                int task = tasks[next++];
+                remaining[task] = instance.durationOf(task);
+                heapSize = push(heap, heapSize, task, tails);
+            }
+
+            // the task with the largest tail runs until it completes or until the next release
+            int task = heap[0];
+            int release = next < from + size ? heads[tasks[next]] : Integer.MAX_VALUE;
+            int run = (int) Math.min(remaining[task], (long) release - time);
+            time += run;
+            remaining[task] -= run;
+            if(remaining[task] == 0) {
+                heapSize = pop(heap, heapSize, tails);
+                makespan = Math.max(makespan, time + tails[task]);
+            }
+        }
+        return makespan;
+    }
+
+    /** Adds a task to the binary heap of tasks ordered by decreasing tail. */
+    private static int push(int[] heap, int size, int task, int[] tails) {
+        int index = size++;
+        while(index > 0 && tails[heap[(index - 1) / 2]] < tails[task]) {
+            heap[index] = heap[(index - 1) / 2];
+            index = (index - 1) / 2;
+        }
+        heap[index] = task;
+        return size;
+    }
+
+    /** Removes the task with the largest tail from the binary heap. */
+    private static int pop(int[] heap, int size, int[] tails) {
+        int last = heap[--size];
+        int index = 0;
+        while(2 * index + 1 < size) {
+            int child = 2 * index + 1;
+            if(child + 1 < size && tails[heap[child + 1]] > tails[heap[child]]) {
+                child++;
+            }
+            if(tails[heap[child]] <= tails[last]) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = last;
+        return size;
+    }
+}
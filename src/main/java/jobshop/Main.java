@@ -1,17 +1,28 @@
 package jobshop;
 
 import java.awt.*;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 
 import jobshop.solvers.*;
 import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.impl.Arguments;
 import net.sourceforge.argparse4j.inf.ArgumentParser;
 import net.sourceforge.argparse4j.inf.ArgumentParserException;
 import net.sourceforge.argparse4j.inf.Namespace;
@@ -30,11 +41,19 @@ public class Main {
         solvers = new HashMap<>();
         solvers.put("basic", new BasicSolver());
         solvers.put("random", new RandomSolver());
-
-        Class[] solverClasses = {GreedySolver.class, DescentSolver.class, TabooSolver.class};
-        for(int i = 0; i < solverClasses.length; i++) {
-            Constructor constructor = solverClasses[i].getDeclaredConstructors()[0];
-            boolean isTabooSolver = solverClasses[i].equals(TabooSolver.class);
+        solvers.put("random-par", new RandomSolver(Runtime.getRuntime().availableProcessors(), 0, 64));
+
+        List<Class<? extends Solver>> solverClasses = Arrays.asList(GreedySolver.class, DescentSolver.class, TabooSolver.class);
+        for(Class<? extends Solver> solverClass : solverClasses) {
+            boolean isTabooSolver = solverClass.equals(TabooSolver.class);
+            Constructor<? extends Solver> constructor;
+            try {
+                constructor = isTabooSolver ?
+                        solverClass.getDeclaredConstructor(int.class, int.class, boolean.class, boolean.class, boolean.class) :
+                        solverClass.getDeclaredConstructor(boolean.class, boolean.class, boolean.class);
+            } catch (NoSuchMethodException e) {
+                throw new RuntimeException(e);
+            }
             Object[] parameters = new Object[isTabooSolver ? 5 : 3];
             if(isTabooSolver) {
                 parameters[0] = tabooDuration;
@@ -47,9 +66,9 @@ public class Main {
                         parameters[parameters.length-2] = remainingProcessingTimeMode == 1;
                         parameters[parameters.length-1] = crescentOrder == 1;
                         try {
-                            Solver solver = (Solver)constructor.newInstance(parameters);
+                            Solver solver = constructor.newInstance(parameters);
                             String solverName =
-                                    (solverClasses[i].equals(GreedySolver.class) ? "" : solverClasses[i].getSimpleName().toLowerCase().substring(0, 4) + "-") +
+                                    (solverClass.equals(GreedySolver.class) ? "" : solverClass.getSimpleName().toLowerCase().substring(0, 4) + "-") +
                                     (earliestStartTimeMode == 1 ? "est-" : "") +
                                     ((crescentOrder == 1) ? "s" : "l") +
                                     ((remainingProcessingTimeMode == 1) ? "r" : "") +
@@ -60,10 +79,27 @@ public class Main {
                 }
             }
         }
+        solvers.put("desc-multi", new MultiStartDescentSolver());
+        solvers.put("genetic", new GeneticSolver(100, 0.2, false, false, Runtime.getRuntime().availableProcessors(), 0));
+        solvers.put("memetic", new GeneticSolver(30, 0.2, true, true, Runtime.getRuntime().availableProcessors(), 0));
+        solvers.put("bnb", new BranchAndBoundSolver(10000, Runtime.getRuntime().availableProcessors()));
+        solvers.put("anneal", new SimulatedAnnealingSolver(0.5, 0.001, 0.8, 0));
+        solvers.put("grasp", new GraspSolver(0.3, Runtime.getRuntime().availableProcessors(), 0));
+        solvers.put("tabo-coop", new CooperativeTabooSolver(tabooDuration, maxIterations, 10, Runtime.getRuntime().availableProcessors(), 0));
+        solvers.put("tabo-par-est-lrpt", new TabooSolver(tabooDuration, maxIterations, true, true, false, true, Runtime.getRuntime().availableProcessors()));
         /* solvers :
          *    - greedy : "lpt", "spt", "lrpt", "srpt", "est-lpt", "est-spt", "est-lrpt", "est-srpt"
          *    - descent : "desc-lpt", "desc-spt", "desc-lrpt", "desc-srpt", "desc-est-lpt", "desc-est-spt", "desc-est-lrpt", "desc-est-srpt"
          *    - taboo : "tabo-lpt", "tabo-spt", "tabo-lrpt", "tabo-srpt", "tabo-est-lpt", "tabo-est-spt", "tabo-est-lrpt", "tabo-est-srpt"
+         *    - random sampling on all processors : "random-par"
+         *    - parallel multi-start descent : "desc-multi"
+         *    - parallel randomized greedy constructions followed by descents : "grasp"
+         *    - exact branch and bound on all processors, seeded with a taboo search : "bnb"
+         *    - simulated annealing from the est-lrpt greedy solution : "anneal"
+         *    - steady-state genetic algorithm with GOX crossover : "genetic"
+         *    - genetic algorithm with PPX crossover improving every child by a descent : "memetic"
+         *    - taboo with exact neighbor evaluation on all processors : "tabo-par-est-lrpt"
+         *    - cooperative taboo on all processors sharing elite solutions : "tabo-coop"
          */
     }
 
@@ -87,6 +123,19 @@ public class Main {
                 .required(true)
                 .help("Instance(s) to solve (space separated if more than one)");
 
+        parser.addArgument("--threads")
+                .setDefault(1)
+                .type(Integer.class)
+                .help("Number of (instance, solver) pairs solved simultaneously, 0 for one per processor");
+
+        parser.addArgument("--pin")
+                .action(Arguments.storeTrue())
+                .help("Give each solve its own processors : at most one simultaneous solve per processor, "
+                        + "and solvers using several threads run alone");
+
+        parser.addArgument("--results")
+                .help("File receiving one record per solve, as CSV if its name ends with .csv and as JSON lines otherwise");
+
         Namespace ns = null;
         try {
             ns = parser.parseArgs(args);
@@ -120,10 +169,26 @@ public class Main {
             instances.addAll(matches);
         }
 
+        int threads = ns.getInt("threads");
+        int processors = Runtime.getRuntime().availableProcessors();
+        boolean pin = ns.getBoolean("pin");
+        if(threads <= 0 || (pin && threads > processors)) {
+            threads = processors;
+        } else if(threads > processors) {
+            System.err.println("WARNING: " + threads + " simultaneous solves on " + processors + " processors, " +
+                    "the solvers will not get a full processor each during their time budget.");
+        }
+
         float[] runtimes = new float[solversToTest.size()];
         float[] distances = new float[solversToTest.size()];
 
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ResultsSink sink = null;
         try {
+            if(ns.getString("results") != null) {
+                sink = ResultsSink.open(Paths.get(ns.getString("results")));
+            }
+
             output.print(  "                         ");
             for(String s : solversToTest)
                 output.printf("%-30s", s);
@@ -134,40 +199,72 @@ public class Main {
             }
             output.println();
 
+            // instances are parsed in parallel before the first solve
+            InstanceRepository repository = new InstanceRepository(Paths.get("instances"));
+            repository.preload(instances, threads);
+
+            // every pair (instance, solver) is solved by a task of the pool, the budget of a solve starts with its task.
+            // When pinned, sequential solves share the read lock and parallel ones take the write lock to run alone.
+            ReadWriteLock solveLock = new ReentrantReadWriteLock(true);
+            Instance[] loaded = new Instance[instances.size()];
+            CompletionService<Run> completion = new ExecutorCompletionService<>(pool);
+            for(int instanceId = 0 ; instanceId < instances.size() ; instanceId++) {
+                loaded[instanceId] = repository.get(instances.get(instanceId));
+                for(int solverId = 0 ; solverId < solversToTest.size() ; solverId++) {
+                    Instance instance = loaded[instanceId];
+                    Solver solver = solvers.get(solversToTest.get(solverId));
+                    Run run = new Run(instanceId, solverId);
+                    Lock lock = !pin ? null : solver.parallelism() > 1 ? solveLock.writeLock() : solveLock.readLock();
+                    completion.submit(() -> run.solve(solver, instance, solveTimeMs, lock));
+                }
+            }
 
-            for(String instanceName : instances) {
-                int bestKnown = BestKnownResult.of(instanceName);
-
+            // rows of the table are printed in order as soon as all their solves are done
+            Run[][] runs = new Run[instances.size()][solversToTest.size()];
+            int[] pending = new int[instances.size()];
+            Arrays.fill(pending, solversToTest.size());
+            int nextRow = 0;
+            int numRuns = instances.size() * solversToTest.size();
+            for(int done = 1 ; done <= numRuns ; done++) {
+                Run run = completion.take().get();
+                runs[run.instanceId][run.solverId] = run;
+                pending[run.instanceId]--;
+
+                String instanceName = instances.get(run.instanceId);
+                Optional<String> violation = run.result.schedule.firstViolatedConstraint();
+                if(violation.isPresent()) {
+                    System.err.println("ERROR: solver " + solversToTest.get(run.solverId) + " returned an invalid schedule for "
+                            + instanceName + " : " + violation.get());
+                    System.exit(1);
+                }
+                if(sink != null) {
+                    sink.write(instanceName, solversToTest.get(run.solverId), run.result, run.runtime, run.cpuTime,
+                            run.allocatedBytes, run.metrics);
+                }
+                if(threads > 1) {
+                    System.err.printf("[%d/%d] %-8s %-20s %7d ms %8d%n", done, numRuns, instanceName,
+                            solversToTest.get(run.solverId), run.runtime, run.result.schedule.makespan());
+                }
 
-                Path path = Paths.get("instances/", instanceName);
-                Instance instance = Instance.fromFile(path);
+                while(nextRow < instances.size() && pending[nextRow] == 0) {
+                    int bestKnown = repository.bestKnown(instances.get(nextRow));
+                    Instance instance = loaded[nextRow];
+                    output.printf("%-8s %-5s %4d      ", instances.get(nextRow), instance.numJobs +"x"+instance.numTasks, bestKnown);
 
-                output.printf("%-8s %-5s %4d      ",instanceName, instance.numJobs +"x"+instance.numTasks, bestKnown);
+                    for(int solverId = 0 ; solverId < solversToTest.size() ; solverId++) {
+                        Run cell = runs[nextRow][solverId];
+                        assert cell.result.schedule.isValid();
+                        int makespan = cell.result.schedule.makespan();
+                        float dist = 100f * (makespan - bestKnown) / (float) bestKnown;
+                        runtimes[solverId] += (float) cell.runtime / (float) instances.size();
+                        distances[solverId] += dist / (float) instances.size();
 
-                for(int solverId = 0 ; solverId < solversToTest.size() ; solverId++) {
-                    String solverName = solversToTest.get(solverId);
-                    Solver solver = solvers.get(solverName);
-                    long start = System.currentTimeMillis();
-                    long deadline = System.currentTimeMillis() + solveTimeMs;
-                    Result result = solver.solve(instance, deadline);
-                    long runtime = System.currentTimeMillis() - start;
-
-                    if(!result.schedule.isValid()) {
-                        System.err.println("ERROR: solver returned an invalid schedule");
-                        System.exit(1);
+                        output.printf("%7d %8s %5.1f        ", cell.runtime, makespan, dist);
                     }
-
-                    assert result.schedule.isValid();
-                    int makespan = result.schedule.makespan();
-                    float dist = 100f * (makespan - bestKnown) / (float) bestKnown;
-                    runtimes[solverId] += (float) runtime / (float) instances.size();
-                    distances[solverId] += dist / (float) instances.size();
-
-                    output.printf("%7d %8s %5.1f        ", runtime, makespan, dist);
+                    output.println();
                     output.flush();
+                    nextRow++;
                 }
-                output.println();
-
             }
 
 
@@ -181,6 +278,74 @@ public class Main {
         } catch (Exception e) {
             e.printStackTrace();
             System.exit(1);
+        } finally {
+            pool.shutdown();
+            if(sink != null) {
+                try {
+                    sink.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Solve of an instance by a solver of the grid, identified by their positions in the lists of the command line.
+     * CPU time and allocated bytes are those of the thread calling the solver, -1 when the JVM cannot measure them :
+     * the work of the threads of a parallel solver is not counted.
+     */
+    static final class Run {
+        final int instanceId;
+        final int solverId;
+        Result result;
+        long runtime;
+        long cpuTime = -1;
+        long allocatedBytes = -1;
+        SolverMetrics metrics;
+
+        Run(int instanceId, int solverId) {
+            this.instanceId = instanceId;
+            this.solverId = solverId;
+        }
+
+        /** Solves the instance, holding the given lock during the solve if it is not null. */
+        Run solve(Solver solver, Instance instance, long solveTimeMs, Lock lock) {
+            if(lock == null) {
+                return solve(solver, instance, solveTimeMs);
+            }
+            lock.lock();
+            try {
+                return solve(solver, instance, solveTimeMs);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Run solve(Solver solver, Instance instance, long solveTimeMs) {
+            ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+            boolean measureCpu = threadBean.isCurrentThreadCpuTimeSupported() && threadBean.isThreadCpuTimeEnabled();
+            com.sun.management.ThreadMXBean allocationBean = threadBean instanceof com.sun.management.ThreadMXBean ?
+                    (com.sun.management.ThreadMXBean) threadBean : null;
+            boolean measureAllocation = allocationBean != null && allocationBean.isThreadAllocatedMemorySupported()
+                    && allocationBean.isThreadAllocatedMemoryEnabled();
+            long startCpu = measureCpu ? threadBean.getCurrentThreadCpuTime() : 0;
+            long startAllocated = measureAllocation ? allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+
+            // the times of the improvement trace start with the solve
+            metrics = new SolverMetrics();
+            long start = System.currentTimeMillis();
+            long deadline = System.currentTimeMillis() + solveTimeMs;
+            result = solver.solve(instance, deadline, metrics);
+            runtime = System.currentTimeMillis() - start;
+
+            if(measureCpu) {
+                cpuTime = (threadBean.getCurrentThreadCpuTime() - startCpu) / 1000000;
+            }
+            if(measureAllocation) {
+                allocatedBytes = allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId()) - startAllocated;
+            }
+            return this;
         }
     }
 }
@@ -0,0 +1,91 @@
+package jobshop;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes one machine readable record per solve, either as CSV with a header line or as JSON lines.
+ *
+ * A record holds the instance, its size, the solver, the makespan, its gap to the best known result in percent
+ * (empty when the best result is unknown), the wall time and CPU time in milliseconds, the counters of the
+ * SolverMetrics of the solve, the bytes allocated during the solve and the exit cause.
+ * JSON lines also hold the improvement trace, as pairs [milliseconds, makespan].
+ * Counters that are not measured are written as -1.
+ */
+public class ResultsSink implements Closeable {
+
+    public enum Format {
+        CSV, JSON_LINES
+    }
+
+    static final String[] FIELDS = {"instance", "size", "solver", "makespan", "gap", "wall_ms", "cpu_ms",
+            "iterations", "neighbors", "decodes", "improvements", "allocated_bytes", "exit_cause"};
+
+    private final Writer writer;
+    private final Format format;
+
+    public ResultsSink(Writer writer, Format format) throws IOException {
+        this.writer = writer;
+        this.format = format;
+        if(format == Format.CSV) {
+            writer.write(String.join(",", FIELDS));
+            writer.write('\n');
+        }
+    }
+
+    /** Opens a sink writing to the given file, as CSV if its name ends with ".csv" and as JSON lines otherwise. */
+    public static ResultsSink open(Path path) throws IOException {
+        Format format = path.getFileName().toString().toLowerCase().endsWith(".csv") ? Format.CSV : Format.JSON_LINES;
+        return new ResultsSink(Files.newBufferedWriter(path, StandardCharsets.UTF_8), format);
+    }
+
+    /** Writes the record of a solve, and flushes it so that the records of a long run can be read while it goes on. */
+    public synchronized void write(String instanceName, String solverName, Result result, long wallTime, long cpuTime,
+                                   long allocatedBytes, SolverMetrics metrics) throws IOException {
+        int makespan = result.schedule.makespan();
+        Double gap = BestKnownResult.isKnown(instanceName) ?
+                100.0 * (makespan - BestKnownResult.of(instanceName)) / BestKnownResult.of(instanceName) : null;
+        Object[] values = {instanceName, result.instance.numJobs + "x" + result.instance.numTasks, solverName, makespan, gap,
+                wallTime, cpuTime,
+                metrics.isEnabled() ? metrics.iterations() : -1,
+                metrics.isEnabled() ? metrics.neighbors() : -1,
+                metrics.isEnabled() ? metrics.decodes() : -1,
+                metrics.isEnabled() ? metrics.improvements() : -1,
+                allocatedBytes, result.cause};
+
+        StringBuilder line = new StringBuilder();
+        for(int i = 0; i < FIELDS.length; i++) {
+            Object value = values[i] instanceof Double ? String.format(Locale.ROOT, "%.2f", values[i]) : values[i];
+            if(format == Format.CSV) {
+                line.append(i == 0 ? "" : ",").append(value == null ? "" : value);
+            } else {
+                line.append(i == 0 ? "{" : ", ").append('"').append(FIELDS[i]).append("\": ");
+                if(values[i] instanceof String || values[i] instanceof Enum) {
+                    line.append('"').append(value).append('"');
+                } else {
+                    line.append(value);
+                }
+            }
+        }
+        if(format == Format.JSON_LINES) {
+            line.append(", \"trace\": [");
+            List<SolverMetrics.Improvement> trace = metrics.trace();
+            for(int i = 0; i < trace.size(); i++) {
+                line.append(i == 0 ? "[" : ", [").append(trace.get(i).time).append(", ").append(trace.get(i).makespan).append(']');
+            }
+            line.append("]}");
+        }
+        line.append('\n');
+        writer.write(line.toString());
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
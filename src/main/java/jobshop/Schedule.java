@@ -4,7 +4,6 @@ package jobshop;
 import jobshop.encodings.Task;
 
 import java.util.*;
-import java.util.stream.IntStream;
 
 public class Schedule {
     public final Instance pb;
@@ -12,6 +11,10 @@ public class Schedule {
     // times[j][i] is the start time of task (j,i) : i^th task of the j^th job
     final int[][] times;
 
+    // machine sequences deduced from the start times, see machinePredecessors()
+    private int[] machinePositions;
+    private volatile int[] machinePredecessors;
+
     public Schedule(Instance pb, int[][] times) {
         this.pb = pb;
         this.times = new int[pb.numJobs][];
@@ -26,6 +29,67 @@ public class Schedule {
 
     /** Returns true if this schedule is valid (no constraint is violated) */
     public boolean isValid() {
+        return !firstViolatedConstraint().isPresent();
+    }
+
+    /**
+     * Returns a description of the first violated constraint of this schedule, empty if it is valid.
+     * Job constraints are checked first, job by job, then machine constraints, machine by machine.
+     *
+     * The tasks of each machine are sorted by start time, so that only consecutive tasks have to be compared :
+     * the check is in O(numMachines * numJobs * log(numJobs)) instead of quadratic in the number of jobs.
+     */
+    public Optional<String> firstViolatedConstraint() {
+        for(int j = 0 ; j<pb.numJobs ; j++) {
+            for(int t = 0 ; t<pb.numTasks ; t++) {
+                if(startTime(j, t) < 0)
+                    return Optional.of("task ("+j+","+t+") starts at negative time "+startTime(j, t));
+            }
+            for(int t = 1 ; t<pb.numTasks ; t++) {
+                if(startTime(j, t-1) + pb.duration(j, t-1) > startTime(j, t))
+                    return Optional.of("task ("+j+","+t+") starts at "+startTime(j, t)
+                            +" before the end of its job predecessor ("+j+","+(t-1)+") at "+(startTime(j, t-1) + pb.duration(j, t-1)));
+            }
+        }
+
+        // tasks of a machine are sorted by start time, packed with their id in a long to avoid boxing
+        long[] keys = new long[pb.numJobs];
+        for(int machine = 0 ; machine < pb.numMachines ; machine++) {
+            for(int j = 0; j < pb.numJobs; j++) {
+                int t = pb.task_with_machine(j, machine);
+                keys[j] = ((long) startTime(j, t) << 32) | (j * pb.numTasks + t);
+            }
+            Arrays.sort(keys);
+
+            // previous is the last task of non zero duration seen so far, the only one that can overlap the next tasks
+            // since the tasks before it end before it starts. A task of zero duration only conflicts with a task
+            // if it starts strictly inside of it.
+            int previous = -1;
+            for(int index = 0; index < pb.numJobs; index++) {
+                int id = (int) keys[index];
+                int start = (int) (keys[index] >>> 32);
+                if(previous >= 0) {
+                    int previousStart = times[previous / pb.numTasks][previous % pb.numTasks];
+                    int previousEnd = previousStart + pb.durationOf(previous);
+                    boolean overlap = pb.durationOf(id) > 0 ? previousEnd > start : previousStart < start && previousEnd > start;
+                    if(overlap)
+                        return Optional.of("tasks ("+(previous / pb.numTasks)+","+(previous % pb.numTasks)+") and ("
+                                +(id / pb.numTasks)+","+(id % pb.numTasks)+") overlap on machine "+machine);
+                }
+                if(pb.durationOf(id) > 0) {
+                    previous = id;
+                }
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Reference implementation of isValid() comparing every pair of tasks of each machine,
+     * kept to check the faster version in tests.
+     */
+    public boolean isValidNaive() {
         for(int j = 0 ; j<pb.numJobs ; j++) {
             for(int t = 1 ; t<pb.numTasks ; t++) {
                 if(startTime(j, t-1) + pb.duration(j, t-1) > startTime(j, t))
@@ -85,52 +149,126 @@ public class Schedule {
         return true;
     }
 
-    public List<Task> criticalPath() {
+    /**
+     * Returns, for every task id (job * numTasks + task), the id of the task executed just before it on its machine
+     * (-1 if none). Machine sequences are deduced from the start times the first time they are needed, along with
+     * the index of every task in the sequence of its machine.
+     */
+    private int[] machinePredecessors() {
+        int[] predecessors = machinePredecessors;
+        if(predecessors == null) {
+            int[] positions = new int[pb.numJobs * pb.numTasks];
+            predecessors = new int[pb.numJobs * pb.numTasks];
+            // tasks of a machine are sorted by start time, packed with their id in a long to avoid boxing
+            long[] keys = new long[pb.numJobs];
+            for(int machine = 0; machine < pb.numMachines; machine++) {
+                for(int j = 0; j < pb.numJobs; j++) {
+                    int t = pb.task_with_machine(j, machine);
+                    keys[j] = ((long) startTime(j, t) << 32) | (j * pb.numTasks + t);
+                }
+                Arrays.sort(keys);
+                for(int index = 0; index < pb.numJobs; index++) {
+                    int id = (int) keys[index];
+                    positions[id] = index;
+                    predecessors[id] = index > 0 ? (int) keys[index - 1] : -1;
+                }
+            }
+            machinePositions = positions;
+            // written last, so that positions are visible to any thread seeing the predecessors
+            machinePredecessors = predecessors;
+        }
+        return predecessors;
+    }
+
+    /**
+     * Writes a critical path in the given buffer, from its first task to its last one, as task ids (job * numTasks + task).
+     * Nothing is allocated once the machine sequences of this schedule are known.
+     *
+     * The path is built backwards from the first job finishing last : the predecessor of a task on the path
+     * is its predecessor on the job if it was delaying it, its predecessor on the machine otherwise.
+     * @param path buffer of at least numJobs * numTasks elements
+     * @return the number of tasks of the path
+     */
+    public int criticalPath(int[] path) {
+        int[] predecessors = machinePredecessors();
+        int numTasks = pb.numTasks;
+
         // select task with greatest end time
-        Task ldd = IntStream.range(0, pb.numJobs)
-                .mapToObj(j -> new Task(j, pb.numTasks-1))
-                .max(Comparator.comparing(this::endTime))
-                .get();
-        assert endTime(ldd) == makespan();
-
-        // list that will contain the critical path.
-        // we construct it from the end, starting with the
-        // task that finishes last
-        LinkedList<Task> path = new LinkedList<>();
-        path.add(0,ldd);
-
-        // keep adding tasks to the path until the first task in the path
-        // starts a time 0
-        while(startTime(path.getFirst()) != 0) {
-            Task cur = path.getFirst();
-            int machine = pb.machine(cur.job, cur.task);
-
-            // will contain the task that was delaying the start
-            // of our current task
-            Optional<Task> latestPredecessor = Optional.empty();
-
-            if(cur.task > 0) {
-                // our current task has a predecessor on the job
-                Task predOnJob = new Task(cur.job, cur.task -1);
-
-                // if it was the delaying task, save it to predecessor
-                if(endTime(predOnJob) == startTime(cur))
-                    latestPredecessor = Optional.of(predOnJob);
+        int current = -1;
+        int latestEnd = -1;
+        for(int j = 0; j < pb.numJobs; j++) {
+            int end = startTime(j, numTasks - 1) + pb.duration(j, numTasks - 1);
+            if(end > latestEnd) {
+                latestEnd = end;
+                current = j * numTasks + numTasks - 1;
             }
-            if(!latestPredecessor.isPresent()) {
-                // no latest predecessor found yet, look among tasks executing on the same machine
-                latestPredecessor = IntStream.range(0, pb.numJobs)
-                        .mapToObj(j -> new Task(j, pb.task_with_machine(j, machine)))
-                        .filter(t -> endTime(t) == startTime(cur))
-                        .findFirst();
+        }
+        assert latestEnd == makespan();
+
+        int length = 0;
+        path[length++] = current;
+        while(times[current / numTasks][current % numTasks] != 0) {
+            int job = current / numTasks;
+            int task = current % numTasks;
+            int start = times[job][task];
+
+            int predecessor;
+            if(task > 0 && times[job][task - 1] + pb.durationOf(current - 1) == start) {
+                predecessor = current - 1;
+            } else {
+                predecessor = predecessors[current];
             }
             // at this point we should have identified a latest predecessor, either on the job or on the machine
-            assert latestPredecessor.isPresent() && endTime(latestPredecessor.get()) == startTime(cur);
-            // insert predecessor at the beginning of the path
-            path.add(0, latestPredecessor.get());
+            assert predecessor >= 0 && times[predecessor / numTasks][predecessor % numTasks] + pb.durationOf(predecessor) == start;
+            current = predecessor;
+            path[length++] = current;
+        }
+
+        for(int i = 0, k = length - 1; i < k; i++, k--) {
+            int tmp = path[i];
+            path[i] = path[k];
+            path[k] = tmp;
+        }
+        return length;
+    }
+
+    /**
+     * Splits the given critical path into blocks : maximal subsequences of at least two tasks executing on the same machine.
+     * Each block is written in the given buffer as three integers : its machine, the index in the machine sequence
+     * of its first task and the index of its last task.
+     * @param blocks buffer of at least 3 * (length / 2) elements
+     * @return the number of blocks
+     */
+    public int criticalBlocks(int[] path, int length, int[] blocks) {
+        machinePredecessors();
+        int[] positions = machinePositions;
+
+        int count = 0;
+        int first = 0;
+        for(int i = 1; i <= length; i++) {
+            if(i == length || pb.machineOf(path[i]) != pb.machineOf(path[first])) {
+                if(i - first > 1) {
+                    blocks[3 * count] = pb.machineOf(path[first]);
+                    blocks[3 * count + 1] = positions[path[first]];
+                    blocks[3 * count + 2] = positions[path[first]] + i - first - 1;
+                    count++;
+                }
+                first = i;
+            }
+        }
+        return count;
+    }
+
+    public List<Task> criticalPath() {
+        int[] path = new int[pb.numJobs * pb.numTasks];
+        int length = criticalPath(path);
+
+        List<Task> criticalPath = new ArrayList<>(length);
+        for(int i = 0; i < length; i++) {
+            criticalPath.add(new Task(path[i] / pb.numTasks, path[i] % pb.numTasks));
         }
-        assert isCriticalPath(path);
-        return path;
+        assert isCriticalPath(criticalPath);
+        return criticalPath;
     }
 
     public String toString() {
@@ -4,4 +4,17 @@ public interface Solver {
 
     Result solve(Instance instance, long deadline);
 
+    /**
+     * Solves the instance while recording counters and improvements in the given metrics.
+     * Solvers that are not instrumented ignore the metrics.
+     */
+    default Result solve(Instance instance, long deadline, SolverMetrics metrics) {
+        return solve(instance, deadline);
+    }
+
+    /** Number of threads working on a solve, 1 for the solvers running in the calling thread only. */
+    default int parallelism() {
+        return 1;
+    }
+
 }
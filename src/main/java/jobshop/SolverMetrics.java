@@ -0,0 +1,114 @@
+package jobshop;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and improvement trace of a solve, filled by the solver given to Solver.solve(instance, deadline, metrics).
+ *
+ * Counters can be updated by several threads at the same time. Solvers report their counters in bulk
+ * (once per iteration, not once per neighbor), and the NONE metrics ignore everything, so that an uninstrumented
+ * solve only pays a test of a final field per iteration.
+ */
+public class SolverMetrics {
+
+    /** Makespan of a new best solution, found the given number of milliseconds after the creation of the metrics */
+    public static final class Improvement {
+        public final long time;
+        public final int makespan;
+
+        Improvement(long time, int makespan) {
+            this.time = time;
+            this.makespan = makespan;
+        }
+
+        @Override
+        public String toString() {
+            return time + "ms:" + makespan;
+        }
+    }
+
+    /** Metrics recording nothing, used by solves that are not instrumented */
+    public static final SolverMetrics NONE = new SolverMetrics(false);
+
+    private final boolean enabled;
+    private final long start = System.nanoTime();
+    private final LongAdder iterations = new LongAdder();
+    private final LongAdder neighbors = new LongAdder();
+    private final LongAdder decodes = new LongAdder();
+    private final List<Improvement> trace = new ArrayList<>();
+
+    public SolverMetrics() {
+        this(true);
+    }
+
+    private SolverMetrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Counts an iteration of the main loop of the solver : a move, a generation, a node or a restart. */
+    public void iteration() {
+        if(enabled) {
+            iterations.increment();
+        }
+    }
+
+    /** Counts neighbors evaluated, exactly or by an estimate. */
+    public void neighbors(int count) {
+        if(enabled) {
+            neighbors.add(count);
+        }
+    }
+
+    /** Counts solutions whose makespan was computed, from scratch or incrementally. */
+    public void decodes(int count) {
+        if(enabled) {
+            decodes.add(count);
+        }
+    }
+
+    /**
+     * Reports a solution of the given makespan. It is added to the trace only if it is better than all the previous
+     * ones, so the threads of a parallel solver can report their own improvements.
+     */
+    public void improvement(int makespan) {
+        if(enabled) {
+            synchronized(trace) {
+                if(trace.isEmpty() || makespan < trace.get(trace.size() - 1).makespan) {
+                    trace.add(new Improvement((System.nanoTime() - start) / 1000000, makespan));
+                }
+            }
+        }
+    }
+
+    public long iterations() {
+        return iterations.sum();
+    }
+
+    public long neighbors() {
+        return neighbors.sum();
+    }
+
+    public long decodes() {
+        return decodes.sum();
+    }
+
+    /** Number of improvements of the best solution, the first solution reported included */
+    public int improvements() {
+        synchronized(trace) {
+            return trace.size();
+        }
+    }
+
+    /** Returns a copy of the improvements of the best solution, by increasing time. */
+    public List<Improvement> trace() {
+        synchronized(trace) {
+            return new ArrayList<>(trace);
+        }
+    }
+}
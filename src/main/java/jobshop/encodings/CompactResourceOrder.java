@@ -0,0 +1,269 @@
+package jobshop.encodings;
+
+import jobshop.Encoding;
+import jobshop.Instance;
+import jobshop.Schedule;
+
+import java.util.Arrays;
+
+/**
+ * Representation by resource order stored in primitive arrays, without any Task object.
+ *
+ * A task (job, task) is identified by its id : job * numTasks + task.
+ * Every job uses every machine exactly once, so the sequence of each machine contains exactly numJobs tasks.
+ *
+ * Consider the solution in ResourceOrder representation (2 jobs, 3 tasks)
+ * machine 0 : (0,0) (1,1)
+ * machine 1 : (1,0) (0,1)
+ * machine 2 : (0,2) (1,2)
+ *
+ * Its compact representation is
+ * tasksOrderPerMachine : [0 4 | 3 1 | 2 5]
+ * positions            : [0 1 0 | 0 1 1]
+ */
+public class CompactResourceOrder extends Encoding {
+
+    /** Flat array of task ids. The sequence of machine m is stored at indices [m * numJobs, (m+1) * numJobs). */
+    public final int[] tasksOrderPerMachine;
+
+    /** For each task id, the index of the task in the sequence of its machine. */
+    public final int[] positions;
+
+    /**
+     * Blank constructor, the sequence of every machine is left empty (filled with -1)
+     * @param instance
+     */
+    public CompactResourceOrder(Instance instance) {
+        super(instance);
+        tasksOrderPerMachine = new int[instance.numMachines * instance.numJobs];
+        positions = new int[instance.numJobs * instance.numTasks];
+        Arrays.fill(tasksOrderPerMachine, -1);
+        Arrays.fill(positions, -1);
+    }
+
+    /**
+     * Constructor from a complete resource order
+     * @param order
+     */
+    public CompactResourceOrder(ResourceOrder order) {
+        this(order.instance);
+        this.fromResourceOrder(order);
+    }
+
+    /**
+     * Constructor from schedule
+     * @param schedule
+     */
+    public CompactResourceOrder(Schedule schedule) {
+        this(schedule.pb);
+        this.fromSchedule(schedule);
+    }
+
+    /**
+     * Copy constructor
+     * @param order
+     */
+    public CompactResourceOrder(CompactResourceOrder order) {
+        super(order.instance);
+        tasksOrderPerMachine = order.tasksOrderPerMachine.clone();
+        positions = order.positions.clone();
+    }
+
+    public CompactResourceOrder copy() {
+        return new CompactResourceOrder(this);
+    }
+
+    /**
+     * Zobrist key of a task placed at the given index of the sequence of its machine.
+     * Keys are computed by mixing the task id and the index instead of being drawn and stored in a table.
+     */
+    public static long zobristKey(int taskId, int index) {
+        // finalizer of SplitMix64
+        long z = ((long) taskId << 32 | index) + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Returns the 64 bits Zobrist hash of the machine sequences : the xor of the keys of all tasks at their index.
+     * Swapping two tasks changes it by the xor of four keys, see IncrementalEvaluator.hash().
+     */
+    public long zobristHash() {
+        long hash = 0;
+        for(int id = 0; id < positions.length; id++) {
+            hash ^= zobristKey(id, positions[id]);
+        }
+        return hash;
+    }
+
+    /** Overwrites this resource order with the given one (of the same instance) without allocating anything. */
+    public void copyFrom(CompactResourceOrder order) {
+        System.arraycopy(order.tasksOrderPerMachine, 0, tasksOrderPerMachine, 0, tasksOrderPerMachine.length);
+        System.arraycopy(order.positions, 0, positions, 0, positions.length);
+    }
+
+    public int taskId(int job, int task) {
+        return instance.taskId(job, task);
+    }
+
+    public int taskId(Task task) {
+        return taskId(task.job, task.task);
+    }
+
+    /** Returns the id of the task at the given index in the sequence of the given machine. */
+    public int taskAt(int machine, int index) {
+        return tasksOrderPerMachine[machine * instance.numJobs + index];
+    }
+
+    /** Returns the index of the given task in the sequence of its machine. */
+    public int indexOf(int taskId) {
+        return positions[taskId];
+    }
+
+    /** Exchanges the tasks at indices i1 and i2 of the sequence of the given machine. */
+    public void swap(int machine, int i1, int i2) {
+        int offset = machine * instance.numJobs;
+        int task1 = tasksOrderPerMachine[offset + i1];
+        int task2 = tasksOrderPerMachine[offset + i2];
+        tasksOrderPerMachine[offset + i1] = task2;
+        tasksOrderPerMachine[offset + i2] = task1;
+        positions[task2] = i1;
+        positions[task1] = i2;
+    }
+
+    public void fromResourceOrder(ResourceOrder order) {
+        for(int r = 0; r < instance.numMachines; r++) {
+            int offset = r * instance.numJobs;
+            int index = 0;
+            for(Task currentTask : order.tasksOrderPerMachine[r]) {
+                int id = taskId(currentTask);
+                tasksOrderPerMachine[offset + index] = id;
+                positions[id] = index;
+                index++;
+            }
+        }
+    }
+
+    public void fromSchedule(Schedule schedule) {
+        // tasks of a machine are sorted by start time, packed with their id in a long to avoid boxing
+        // ties are broken by task id, like the stable sort of ResourceOrder.fromSchedule
+        long[] keys = new long[instance.numJobs];
+        for(int r = 0; r < instance.numMachines; r++) {
+            for(int j = 0; j < instance.numJobs; j++) {
+                int t = instance.task_with_machine(j, r);
+                keys[j] = ((long) schedule.startTime(j, t) << 32) | taskId(j, t);
+            }
+            Arrays.sort(keys);
+            int offset = r * instance.numJobs;
+            for(int index = 0; index < instance.numJobs; index++) {
+                int id = (int) keys[index];
+                tasksOrderPerMachine[offset + index] = id;
+                positions[id] = index;
+            }
+        }
+    }
+
+    public ResourceOrder toResourceOrder() {
+        ResourceOrder order = new ResourceOrder(instance);
+        for(int r = 0; r < instance.numMachines; r++) {
+            for(int index = 0; index < instance.numJobs; index++) {
+                int id = taskAt(r, index);
+                order.addTaskToResourceQueue(r, id % instance.numTasks, id / instance.numTasks);
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Computes the earliest start time of every task with a single topological pass on the disjunctive graph
+     * (Kahn's algorithm). Nothing is allocated : all arrays are provided by the caller and must have one
+     * element per task.
+     *
+     * @param startTimes filled with the start time of each task id
+     * @param inDegree scratch buffer
+     * @param queue scratch buffer
+     * @return the makespan of the decoded schedule
+     */
+    public int decode(int[] startTimes, int[] inDegree, int[] queue) {
+        int numTasks = instance.numTasks;
+        int numJobs = instance.numJobs;
+        int numNodes = numJobs * numTasks;
+
+        int queueHead = 0;
+        int queueTail = 0;
+        for(int id = 0; id < numNodes; id++) {
+            startTimes[id] = 0;
+            inDegree[id] = (id % numTasks != 0 ? 1 : 0) + (positions[id] != 0 ? 1 : 0);
+            if(inDegree[id] == 0) {
+                queue[queueTail++] = id;
+            }
+        }
+
+        int makespan = 0;
+        while(queueHead < queueTail) {
+            int id = queue[queueHead++];
+            int endTime = startTimes[id] + instance.durationOf(id);
+            makespan = Math.max(makespan, endTime);
+
+            if(id % numTasks < numTasks - 1) {
+                int jobSuccessor = id + 1;
+                startTimes[jobSuccessor] = Math.max(startTimes[jobSuccessor], endTime);
+                if(--inDegree[jobSuccessor] == 0) {
+                    queue[queueTail++] = jobSuccessor;
+                }
+            }
+            int index = positions[id];
+            if(index < numJobs - 1) {
+                int resourceSuccessor = tasksOrderPerMachine[instance.machineOf(id) * numJobs + index + 1];
+                startTimes[resourceSuccessor] = Math.max(startTimes[resourceSuccessor], endTime);
+                if(--inDegree[resourceSuccessor] == 0) {
+                    queue[queueTail++] = resourceSuccessor;
+                }
+            }
+        }
+
+        if(queueTail != numNodes) {
+            throw new RuntimeException("The resource order contains a cycle, it cannot be decoded into a schedule");
+        }
+        return makespan;
+    }
+
+    @Override
+    public Schedule toSchedule() {
+        int numNodes = instance.numJobs * instance.numTasks;
+        int[] startTimes = new int[numNodes];
+        decode(startTimes, new int[numNodes], new int[numNodes]);
+
+        int[][] times = new int[instance.numJobs][];
+        for(int j = 0; j < instance.numJobs; j++) {
+            times[j] = Arrays.copyOfRange(startTimes, j * instance.numTasks, (j + 1) * instance.numTasks);
+        }
+        return new Schedule(instance, times);
+    }
+
+    public String toString() {
+        StringBuilder strBuild = new StringBuilder();
+        for(int r = 0; r < instance.numMachines; r++) {
+            strBuild.append("M"+r+" : ");
+            for(int index = 0; index < instance.numJobs; index++) {
+                int id = taskAt(r, index);
+                strBuild.append("("+(id / instance.numTasks)+","+(id % instance.numTasks)+") ");
+            }
+            strBuild.append("\n");
+        }
+        strBuild.append("\n");
+        return strBuild.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        CompactResourceOrder other = (CompactResourceOrder) o;
+        return this.instance.equals(other.instance) && Arrays.equals(tasksOrderPerMachine, other.tasksOrderPerMachine);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(tasksOrderPerMachine);
+    }
+}
@@ -80,6 +80,32 @@ public class JobNumbers extends Encoding {
         return new Schedule(instance, startTimes);
     }
 
+    /**
+     * Computes the makespan of the schedule built by toSchedule() without building it.
+     * Nothing is allocated : all arrays are provided by the caller and are overwritten.
+     *
+     * @param nextTask scratch buffer of numJobs elements
+     * @param jobEnd scratch buffer of numJobs elements, filled with the end time of each job
+     * @param machineEnd scratch buffer of numMachines elements
+     * @return the makespan of the decoded schedule
+     */
+    public int makespan(int[] nextTask, int[] jobEnd, int[] machineEnd) {
+        Arrays.fill(nextTask, 0);
+        Arrays.fill(jobEnd, 0);
+        Arrays.fill(machineEnd, 0);
+
+        int makespan = 0;
+        for(int job : jobs) {
+            int id = instance.taskId(job, nextTask[job]++);
+            int machine = instance.machineOf(id);
+            int end = Math.max(jobEnd[job], machineEnd[machine]) + instance.durationOf(id);
+            jobEnd[job] = end;
+            machineEnd[machine] = end;
+            makespan = Math.max(makespan, end);
+        }
+        return makespan;
+    }
+
     public void fromSchedule(Schedule schedule) {
         ArrayList<TaskStartDate> sortedSchedule = new ArrayList<TaskStartDate>(instance.numJobs*instance.numTasks);
         for(int j=0; j<instance.numJobs; j++) {
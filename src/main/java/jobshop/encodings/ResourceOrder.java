@@ -56,78 +56,82 @@ public class ResourceOrder extends Encoding {
         tasksOrderPerMachine[resource].add(new Task(job, task));
     }
 
-    private Task getPreviousTaskJob(Task task) {
-        return task.getPreviousJobTask();
-    }
-
-    private Task getPreviousTaskResource(Task task) {
-        int r = instance.machine(task.job, task.task);
-        int i = tasksOrderPerMachine[r].indexOf(task);
-        if(i > 0) {
-            return tasksOrderPerMachine[r].get(i - 1);
-        } else if(i == 0) {
-            return null;
-        } else {
-            //if the task is not found, it means it is the first function call and task is a realizable task
-            if(tasksOrderPerMachine[r].size() > 0) {
-                return tasksOrderPerMachine[r].get(tasksOrderPerMachine[r].size() - 1);
-            } else {
-                return null;
-            }
-        }
-    }
-
+    /**
+     * Decodes this resource order into a schedule.
+     *
+     * The disjunctive graph (job successors are implicit, machine successors are stored in a flat array indexed by
+     * task id = job * numTasks + task) is built once, then start times are computed with a single topological pass
+     * (Kahn's algorithm) : a task is released as soon as both its job predecessor and its machine predecessor
+     * have been scheduled.
+     */
     @Override
     public Schedule toSchedule() {
-        //long startTime = System.nanoTime();
+        int numTasks = instance.numTasks;
+        int numNodes = instance.numJobs * numTasks;
 
-        int[][] startTimes = new int[instance.numJobs][instance.numTasks];
-        for(int j=0; j<instance.numJobs; j++) {
-            Arrays.fill(startTimes[j], -1);
+        // machine successor of each task, -1 if the task is the last of its machine
+        int[] machineSuccessor = new int[numNodes];
+        Arrays.fill(machineSuccessor, -1);
+        // number of predecessors (job and machine) not scheduled yet
+        int[] inDegree = new int[numNodes];
+
+        for(int r = 0; r < instance.numMachines; r++) {
+            ArrayList<Task> machineTasks = tasksOrderPerMachine[r];
+            for(int i = 0; i < machineTasks.size() - 1; i++) {
+                Task current = machineTasks.get(i);
+                Task next = machineTasks.get(i + 1);
+                int nextId = next.job * numTasks + next.task;
+                machineSuccessor[current.job * numTasks + current.task] = nextId;
+                inDegree[nextId]++;
+            }
+        }
+        for(int id = 0; id < numNodes; id++) {
+            if(id % numTasks != 0) {
+                inDegree[id]++;
+            }
         }
 
-        ArrayList<Task> queue = new ArrayList<Task>(instance.numJobs * instance.numTasks);
-        for(int j=0; j<instance.numJobs; j++) {
-            for(int i=0; i<instance.numTasks; i++) {
-                queue.add(new Task(j, i));
+        // FIFO queue of tasks whose predecessors are all scheduled, each task is pushed exactly once
+        int[] queue = new int[numNodes];
+        int queueHead = 0;
+        int queueTail = 0;
+        for(int id = 0; id < numNodes; id++) {
+            if(inDegree[id] == 0) {
+                queue[queueTail++] = id;
             }
         }
 
-        Iterator<Task> iter = queue.iterator();
-        while(queue.size() > 0) {
-            if(iter.hasNext()) {
-                Task currentTask = iter.next();
-                Task previousTaskResource = getPreviousTaskResource(currentTask);
-                Task previousTaskJob = getPreviousTaskJob(currentTask);
-
-                if(previousTaskResource == null) {
-                    if(previousTaskJob == null) {
-                        iter.remove();
-                        startTimes[currentTask.job][currentTask.task] = 0;
-                    } else if(startTimes[previousTaskJob.job][previousTaskJob.task] != -1) {
-                        iter.remove();
-                        startTimes[currentTask.job][currentTask.task] = startTimes[previousTaskJob.job][previousTaskJob.task] + instance.duration(previousTaskJob.job, previousTaskJob.task);
-                    }
-                } else if(startTimes[previousTaskResource.job][previousTaskResource.task] != -1){
-                    if(previousTaskJob == null) {
-                        iter.remove();
-                        startTimes[currentTask.job][currentTask.task] = startTimes[previousTaskResource.job][previousTaskResource.task] + instance.duration(previousTaskResource.job, previousTaskResource.task);
-                    } else if(startTimes[previousTaskJob.job][previousTaskJob.task] != -1){
-                        iter.remove();
-                        startTimes[currentTask.job][currentTask.task] = Integer.max(
-                                startTimes[previousTaskJob.job][previousTaskJob.task] + instance.duration(previousTaskJob.job, previousTaskJob.task),
-                                startTimes[previousTaskResource.job][previousTaskResource.task] + instance.duration(previousTaskResource.job, previousTaskResource.task)
-                        );
-                    }
+        // start times are only ever increased by the relaxation of incoming arcs
+        int[] startTimes = new int[numNodes];
+        while(queueHead < queueTail) {
+            int id = queue[queueHead++];
+            int endTime = startTimes[id] + instance.durationOf(id);
+
+            if(id % numTasks < numTasks - 1) {
+                int jobSuccessor = id + 1;
+                startTimes[jobSuccessor] = Math.max(startTimes[jobSuccessor], endTime);
+                if(--inDegree[jobSuccessor] == 0) {
+                    queue[queueTail++] = jobSuccessor;
+                }
+            }
+            int resourceSuccessor = machineSuccessor[id];
+            if(resourceSuccessor != -1) {
+                startTimes[resourceSuccessor] = Math.max(startTimes[resourceSuccessor], endTime);
+                if(--inDegree[resourceSuccessor] == 0) {
+                    queue[queueTail++] = resourceSuccessor;
                 }
-            } else {
-                //reset the iterator to keep looping until there is no more element in the queue
-                iter = queue.iterator();
             }
         }
 
-        //System.out.println(System.nanoTime()-startTime);
-        return new Schedule(instance, startTimes);
+        if(queueTail != numNodes) {
+            throw new RuntimeException("The resource order contains a cycle, it cannot be decoded into a schedule");
+        }
+
+        int[][] times = new int[instance.numJobs][];
+        for(int j = 0; j < instance.numJobs; j++) {
+            times[j] = Arrays.copyOfRange(startTimes, j * numTasks, (j + 1) * numTasks);
+        }
+        return new Schedule(instance, times);
     }
 
     public void fromSchedule(Schedule schedule) {
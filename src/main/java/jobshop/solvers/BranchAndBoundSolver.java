@@ -0,0 +1,477 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.LowerBound;
+import jobshop.Result;
+import jobshop.Schedule;
+import jobshop.Solver;
+import jobshop.SolverMetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Exact solver : depth first branch and bound over the active schedules, built with the algorithm of Giffler and Thompson.
+ *
+ * At each node, the unscheduled task that can complete first defines a machine and a conflict set : the unscheduled
+ * tasks of this machine that can start before this completion time. Each task of the conflict set is scheduled next
+ * in one child, at its earliest start time.
+ *
+ * A node is pruned when its lower bound is not better than the best known solution. The bound is the largest
+ * optimal makespan of the one-machine preemptive problems (Jackson's preemptive schedule) of the unscheduled tasks,
+ * their heads being their earliest start times in the partial schedule and their tails the remaining processing
+ * time of their job.
+ *
+ * The first solution is found with TabooSolver, and is optimal if it reaches the bound of LowerBound.
+ *
+ * The first levels of the tree are explored in parallel, each subtree being a task of a work-stealing pool,
+ * and solutions are shared between threads as soon as they are found.
+ * If the whole tree is explored before the deadline, the best solution is optimal.
+ */
+public class BranchAndBoundSolver implements Solver {
+
+    /** Nodes of depth lower than this are explored in parallel, the deeper ones sequentially */
+    static final int SPLIT_DEPTH = 4;
+
+    /** Number of nodes explored by a thread between two checks of the deadline */
+    static final int CHECK_PERIOD = 1024;
+
+    /** Best solution found by any thread, replaced atomically. */
+    private static final class Incumbent {
+        final int makespan;
+        final int[] startTimes;
+
+        Incumbent(int makespan, int[] startTimes) {
+            this.makespan = makespan;
+            this.startTimes = startTimes;
+        }
+    }
+
+    /**
+     * Partial schedule of a node : tasks are scheduled job by job in order, so the scheduled tasks of a job are
+     * its nextTask[job] first ones.
+     */
+    static final class Node {
+        final int[] startTimes;
+        final int[] nextTask;
+        final int[] jobEnd;
+        final int[] machineEnd;
+        int scheduled;
+
+        Node(Instance instance) {
+            startTimes = new int[instance.numJobs * instance.numTasks];
+            nextTask = new int[instance.numJobs];
+            jobEnd = new int[instance.numJobs];
+            machineEnd = new int[instance.numMachines];
+        }
+
+        Node(Node node) {
+            startTimes = node.startTimes.clone();
+            nextTask = node.nextTask.clone();
+            jobEnd = node.jobEnd.clone();
+            machineEnd = node.machineEnd.clone();
+            scheduled = node.scheduled;
+        }
+
+        /** Schedules the next task of the given job at its earliest start time. */
+        void schedule(Instance instance, int job) {
+            int id = instance.taskId(job, nextTask[job]++);
+            int machine = instance.machineOf(id);
+            startTimes[id] = Math.max(jobEnd[job], machineEnd[machine]);
+            jobEnd[job] = startTimes[id] + instance.durationOf(id);
+            machineEnd[machine] = jobEnd[job];
+            scheduled++;
+        }
+    }
+
+    /** Buffers of the lower bound computation, one set per thread. */
+    static final class Buffers {
+        final int[] heads;
+        final int[] tails;
+        final int[] remaining;
+        final int[] machineTasks;
+        final int[] machineSizes;
+        final int[] heap;
+        final int[] jobHeads;
+        final int[] adjustedHeads;
+        final int[] completions;
+        int nodes;
+        final SolverMetrics metrics;
+
+        Buffers(Instance instance, SolverMetrics metrics) {
+            this.metrics = metrics;
+            heads = new int[instance.numJobs * instance.numTasks];
+            tails = new int[instance.numJobs * instance.numTasks];
+            remaining = new int[instance.numJobs * instance.numTasks];
+            machineTasks = new int[instance.numMachines * instance.numJobs];
+            machineSizes = new int[instance.numMachines];
+            heap = new int[instance.numJobs];
+            jobHeads = new int[instance.numJobs];
+            adjustedHeads = new int[instance.numJobs];
+            completions = new int[instance.numJobs];
+        }
+    }
+
+    int upperBoundIterations;
+    int parallelism;
+
+    /**
+     * @param upperBoundIterations maximum number of iterations of the taboo search giving the first solution
+     * @param parallelism number of threads exploring the tree
+     */
+    public BranchAndBoundSolver(int upperBoundIterations, int parallelism) {
+        this.upperBoundIterations = upperBoundIterations;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public int parallelism() {
+        return parallelism;
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline) {
+        return solve(instance, deadline, SolverMetrics.NONE);
+    }
+
+    /** Every explored node is an iteration of the metrics. */
+    @Override
+    public Result solve(Instance instance, long deadline, SolverMetrics metrics) {
+        Schedule initial = new TabooSolver(30, upperBoundIterations, true, true, false).solve(instance, deadline).schedule;
+        int[] initialStartTimes = new int[instance.numJobs * instance.numTasks];
+        for(int id = 0; id < initialStartTimes.length; id++) {
+            initialStartTimes[id] = initial.startTime(id / instance.numTasks, id % instance.numTasks);
+        }
+        AtomicReference<Incumbent> best = new AtomicReference<>(new Incumbent(initial.makespan(), initialStartTimes));
+        metrics.improvement(initial.makespan());
+        // no need to explore the tree if the first solution reaches the lower bound of the instance
+        boolean optimal = initial.makespan() == LowerBound.of(instance);
+        AtomicBoolean timeout = new AtomicBoolean(!optimal && System.currentTimeMillis() >= deadline);
+
+        if(!optimal && !timeout.get()) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.invoke(new Subtree(instance, new Node(instance), 0, deadline, best, timeout, metrics));
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        int[] startTimes = best.get().startTimes;
+        int[][] times = new int[instance.numJobs][];
+        for(int j = 0; j < instance.numJobs; j++) {
+            times[j] = Arrays.copyOfRange(startTimes, j * instance.numTasks, (j + 1) * instance.numTasks);
+        }
+        return new Result(instance, new Schedule(instance, times), timeout.get() ? Result.ExitCause.Timeout : Result.ExitCause.ProvedOptimal);
+    }
+
+    /** Exploration of the subtree of a node, split in parallel tasks for the first levels of the tree. */
+    private static final class Subtree extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final Instance instance;
+        final Node node;
+        final int depth;
+        final long deadline;
+        final AtomicReference<Incumbent> best;
+        final AtomicBoolean timeout;
+        final SolverMetrics metrics;
+
+        Subtree(Instance instance, Node node, int depth, long deadline, AtomicReference<Incumbent> best, AtomicBoolean timeout,
+                SolverMetrics metrics) {
+            this.instance = instance;
+            this.node = node;
+            this.depth = depth;
+            this.deadline = deadline;
+            this.best = best;
+            this.timeout = timeout;
+            this.metrics = metrics;
+        }
+
+        @Override
+        protected void compute() {
+            Buffers buffers = new Buffers(instance, metrics);
+            if(depth >= SPLIT_DEPTH) {
+                explore(instance, node, deadline, best, timeout, buffers);
+                return;
+            }
+            metrics.iteration();
+            if(timeout.get() || isComplete(instance, node, best, metrics) || lowerBound(instance, node, best.get().makespan, buffers) >= best.get().makespan) {
+                return;
+            }
+            int[] conflictSet = new int[instance.numJobs];
+            int size = conflictSet(instance, node, conflictSet, buffers);
+            List<Subtree> children = new ArrayList<>(size);
+            for(int i = 0; i < size; i++) {
+                Node child = new Node(node);
+                child.schedule(instance, conflictSet[i]);
+                children.add(new Subtree(instance, child, depth + 1, deadline, best, timeout, metrics));
+            }
+            invokeAll(children);
+        }
+    }
+
+    /** Sequential depth first exploration of the subtree of the given node. */
+    static void explore(Instance instance, Node node, long deadline, AtomicReference<Incumbent> best, AtomicBoolean timeout, Buffers buffers) {
+        if(++buffers.nodes % CHECK_PERIOD == 0 && System.currentTimeMillis() >= deadline) {
+            timeout.set(true);
+        }
+        buffers.metrics.iteration();
+        if(timeout.get() || isComplete(instance, node, best, buffers.metrics) || lowerBound(instance, node, best.get().makespan, buffers) >= best.get().makespan) {
+            return;
+        }
+        int[] conflictSet = new int[instance.numJobs];
+        int size = conflictSet(instance, node, conflictSet, buffers);
+        for(int i = 0; i < size; i++) {
+            Node child = new Node(node);
+            child.schedule(instance, conflictSet[i]);
+            explore(instance, child, deadline, best, timeout, buffers);
+        }
+    }
+
+    /** Returns true if all the tasks of the node are scheduled, after publishing its schedule if it is the best one. */
+    private static boolean isComplete(Instance instance, Node node, AtomicReference<Incumbent> best, SolverMetrics metrics) {
+        if(node.scheduled < instance.numJobs * instance.numTasks) {
+            return false;
+        }
+        int makespan = 0;
+        for(int end : node.jobEnd) {
+            makespan = Math.max(makespan, end);
+        }
+        Incumbent current = best.get();
+        Incumbent candidate = new Incumbent(makespan, node.startTimes.clone());
+        while(makespan < current.makespan && !best.compareAndSet(current, candidate)) {
+            current = best.get();
+        }
+        metrics.improvement(makespan);
+        return true;
+    }
+
+    /**
+     * Writes the jobs of the conflict set of Giffler and Thompson in the given buffer, the most promising first :
+     * by earliest start time, then by largest remaining processing time.
+     * Must be called after lowerBound : a task whose adjusted head is later than its earliest start time cannot be
+     * scheduled next in a schedule shorter than the upper bound, so it is left out of the conflict set.
+     * @return the size of the conflict set
+     */
+    static int conflictSet(Instance instance, Node node, int[] conflictSet, Buffers buffers) {
+        // the task completing first defines the machine on which to branch
+        int firstCompletion = Integer.MAX_VALUE;
+        int machine = -1;
+        for(int j = 0; j < instance.numJobs; j++) {
+            if(node.nextTask[j] < instance.numTasks) {
+                int id = instance.taskId(j, node.nextTask[j]);
+                int completion = Math.max(node.jobEnd[j], node.machineEnd[instance.machineOf(id)]) + instance.durationOf(id);
+                if(completion < firstCompletion) {
+                    firstCompletion = completion;
+                    machine = instance.machineOf(id);
+                }
+            }
+        }
+
+        int[] heads = buffers.jobHeads;
+        int size = 0;
+        for(int j = 0; j < instance.numJobs; j++) {
+            if(node.nextTask[j] < instance.numTasks) {
+                int id = instance.taskId(j, node.nextTask[j]);
+                heads[j] = Math.max(node.jobEnd[j], node.machineEnd[machine]);
+                if(instance.machineOf(id) == machine && heads[j] < firstCompletion && buffers.heads[id] <= heads[j]) {
+                    // insertion sort, the conflict set is small
+                    int i = size++;
+                    while(i > 0 && isBefore(instance, node, j, conflictSet[i - 1], heads)) {
+                        conflictSet[i] = conflictSet[i - 1];
+                        i--;
+                    }
+                    conflictSet[i] = j;
+                }
+            }
+        }
+        return size;
+    }
+
+    private static boolean isBefore(Instance instance, Node node, int job1, int job2, int[] heads) {
+        if(heads[job1] != heads[job2]) {
+            return heads[job1] < heads[job2];
+        }
+        return instance.remainingProcessingTime(job1, node.nextTask[job1]) > instance.remainingProcessingTime(job2, node.nextTask[job2]);
+    }
+
+    /**
+     * Returns a lower bound of the makespan of any schedule extending the partial schedule of the node and shorter than
+     * the given upper bound, or a value at least equal to the upper bound if there is no such schedule.
+     *
+     * Heads and tails of the unscheduled tasks are first adjusted by immediate selection : two tasks i and j of the
+     * same machine such that r(i) + p(i) + p(j) + q(j) >= upperBound cannot be sequenced with i before j, so j precedes
+     * i and r(i) >= r(j) + p(j), q(j) >= p(i) + q(i). Heads and tails are then adjusted by edge finding on each machine
+     * (see edgeFinding). Adjustments are propagated along the jobs until none applies.
+     * The bound is then the largest makespan of the preemptive one-machine problems of the unscheduled tasks.
+     */
+    static int lowerBound(Instance instance, Node node, int upperBound, Buffers buffers) {
+        int[] heads = buffers.heads;
+        int[] tails = buffers.tails;
+        int[] machineTasks = buffers.machineTasks;
+        int[] machineSizes = buffers.machineSizes;
+        Arrays.fill(machineSizes, 0);
+
+        int bound = 0;
+        for(int j = 0; j < instance.numJobs; j++) {
+            bound = Math.max(bound, node.jobEnd[j]);
+            int head = node.jobEnd[j];
+            for(int t = node.nextTask[j]; t < instance.numTasks; t++) {
+                int id = instance.taskId(j, t);
+                int machine = instance.machineOf(id);
+                heads[id] = Math.max(head, node.machineEnd[machine]);
+                tails[id] = instance.remainingProcessingTime(j, t) - instance.durationOf(id);
+                head = heads[id] + instance.durationOf(id);
+                machineTasks[machine * instance.numJobs + machineSizes[machine]++] = id;
+            }
+        }
+
+        boolean changed = true;
+        while(changed) {
+            changed = false;
+            for(int machine = 0; machine < instance.numMachines; machine++) {
+                int from = machine * instance.numJobs;
+                for(int a = from; a < from + machineSizes[machine]; a++) {
+                    int i = machineTasks[a];
+                    for(int b = a + 1; b < from + machineSizes[machine]; b++) {
+                        int j = machineTasks[b];
+                        boolean iBeforeJ = heads[i] + instance.durationOf(i) + instance.durationOf(j) + tails[j] < upperBound;
+                        boolean jBeforeI = heads[j] + instance.durationOf(j) + instance.durationOf(i) + tails[i] < upperBound;
+                        if(!iBeforeJ && !jBeforeI) {
+                            return upperBound;
+                        }
+                        if(!iBeforeJ) {
+                            changed |= select(j, i, instance, heads, tails);
+                        } else if(!jBeforeI) {
+                            changed |= select(i, j, instance, heads, tails);
+                        }
+                    }
+                }
+
+                // tails are the heads of the problem where all arcs are reversed
+                int headsAdjusted = edgeFinding(instance, machineTasks, from, machineSizes[machine], heads, tails, upperBound, buffers);
+                int tailsAdjusted = edgeFinding(instance, machineTasks, from, machineSizes[machine], tails, heads, upperBound, buffers);
+                if(headsAdjusted < 0 || tailsAdjusted < 0) {
+                    return upperBound;
+                }
+                changed |= headsAdjusted > 0 || tailsAdjusted > 0;
+            }
+
+            // heads are propagated forward along the jobs, tails backward
+            for(int j = 0; j < instance.numJobs; j++) {
+                for(int t = node.nextTask[j] + 1; t < instance.numTasks; t++) {
+                    int id = instance.taskId(j, t);
+                    heads[id] = Math.max(heads[id], heads[id - 1] + instance.durationOf(id - 1));
+                }
+                for(int t = instance.numTasks - 2; t >= node.nextTask[j]; t--) {
+                    int id = instance.taskId(j, t);
+                    tails[id] = Math.max(tails[id], tails[id + 1] + instance.durationOf(id + 1));
+                }
+                if(node.nextTask[j] < instance.numTasks) {
+                    int last = instance.taskId(j, instance.numTasks - 1);
+                    // the job cannot complete before its remaining tasks are done one after the other
+                    bound = Math.max(bound, heads[last] + instance.durationOf(last));
+                    if(bound >= upperBound) {
+                        return bound;
+                    }
+                }
+            }
+        }
+
+        for(int machine = 0; machine < instance.numMachines; machine++) {
+            bound = Math.max(bound, LowerBound.preemptiveMakespan(instance, machineTasks, machine * instance.numJobs, machineSizes[machine],
+                    heads, tails, buffers.remaining, buffers.heap));
+        }
+        return bound;
+    }
+
+    /**
+     * Edge finding on the given tasks of a machine (Baptiste, Le Pape and Nuijten's O(n^2) algorithm), for schedules
+     * shorter than the upper bound : each task j must complete before its deadline d(j) = upperBound - 1 - q(j).
+     * If a task i cannot be processed before all the tasks of a set S (r(S + i) + p(S + i) > d(S)), it is processed after
+     * them and its head is increased to the earliest completion time of a subset of S.
+     * The tasks are sorted by head in place.
+     * @return -1 if no schedule of the tasks meets the deadlines, 1 if a head has been increased, 0 otherwise
+     */
+    static int edgeFinding(Instance instance, int[] tasks, int from, int size, int[] heads, int[] tails, int upperBound, Buffers buffers) {
+        int[] adjustedHeads = buffers.adjustedHeads;
+        int[] completions = buffers.completions;
+
+        // insertion sort by head, the sequence of a machine is small
+        for(int i = from + 1; i < from + size; i++) {
+            int task = tasks[i];
+            int k = i;
+            while(k > from && heads[tasks[k - 1]] > heads[task]) {
+                tasks[k] = tasks[k - 1];
+                k--;
+            }
+            tasks[k] = task;
+        }
+        for(int i = 0; i < size; i++) {
+            adjustedHeads[i] = heads[tasks[from + i]];
+        }
+
+        for(int k = 0; k < size; k++) {
+            // tasks of the set S have a deadline lower than the one of the k-th task
+            int deadline = upperBound - 1 - tails[tasks[from + k]];
+            int processing = 0;
+            int completion = Integer.MIN_VALUE;
+            for(int i = size - 1; i >= 0; i--) {
+                int task = tasks[from + i];
+                if(upperBound - 1 - tails[task] <= deadline) {
+                    processing += instance.durationOf(task);
+                    completion = Math.max(completion, heads[task] + processing);
+                    if(completion > deadline) {
+                        return -1;
+                    }
+                }
+                completions[i] = completion;
+            }
+
+            int latestStart = Integer.MIN_VALUE;
+            for(int i = 0; i < size; i++) {
+                int task = tasks[from + i];
+                if(upperBound - 1 - tails[task] <= deadline) {
+                    latestStart = Math.max(latestStart, heads[task] + processing);
+                    processing -= instance.durationOf(task);
+                } else {
+                    if(heads[task] + processing + instance.durationOf(task) > deadline) {
+                        adjustedHeads[i] = Math.max(adjustedHeads[i], completions[i]);
+                    }
+                    if(latestStart + instance.durationOf(task) > deadline) {
+                        adjustedHeads[i] = Math.max(adjustedHeads[i], completion);
+                    }
+                }
+            }
+        }
+
+        int adjusted = 0;
+        for(int i = 0; i < size; i++) {
+            if(adjustedHeads[i] > heads[tasks[from + i]]) {
+                heads[tasks[from + i]] = adjustedHeads[i];
+                adjusted = 1;
+            }
+        }
+        return adjusted;
+    }
+
+    /** Sequences the task first before the task second, returns true if a head or a tail has been increased. */
+    private static boolean select(int first, int second, Instance instance, int[] heads, int[] tails) {
+        boolean changed = false;
+        if(heads[second] < heads[first] + instance.durationOf(first)) {
+            heads[second] = heads[first] + instance.durationOf(first);
+            changed = true;
+        }
+        if(tails[first] < tails[second] + instance.durationOf(second)) {
+            tails[first] = tails[second] + instance.durationOf(second);
+            changed = true;
+        }
+        return changed;
+    }
+}
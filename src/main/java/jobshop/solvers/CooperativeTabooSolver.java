@@ -0,0 +1,240 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Solver;
+import jobshop.SolverMetrics;
+import jobshop.encodings.CompactResourceOrder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Cooperative parallel taboo search.
+ *
+ * Each thread runs the taboo search of TabooSolver from its own starting solution (see MultiStartDescentSolver)
+ * and publishes every improvement of its own best solution in a shared pool of elite solutions.
+ * When a thread has not improved its best solution for a given number of iterations, it restarts from a solution
+ * located halfway on the path between two elite solutions (path relinking).
+ */
+public class CooperativeTabooSolver implements Solver {
+
+    /** A solution of the elite pool, never modified once published. */
+    static final class Elite {
+        final int makespan;
+        final CompactResourceOrder order;
+
+        Elite(int makespan, CompactResourceOrder order) {
+            this.makespan = makespan;
+            this.order = order;
+        }
+    }
+
+    /**
+     * Fixed size pool of the best distinct solutions found by all threads.
+     * Slots are replaced with compare-and-set operations, so that readers and writers never block each other.
+     */
+    static final class ElitePool {
+        private final AtomicReferenceArray<Elite> slots;
+
+        ElitePool(int size) {
+            slots = new AtomicReferenceArray<>(size);
+        }
+
+        /**
+         * Publishes a copy of the given solution in place of the worst elite solution, if it is better and not already in the pool.
+         * @return true if the solution has been added to the pool
+         */
+        boolean offer(int makespan, CompactResourceOrder order) {
+            Elite candidate = null;
+            while(true) {
+                int worst = -1;
+                Elite worstElite = null;
+                for(int i = 0; i < slots.length(); i++) {
+                    Elite elite = slots.get(i);
+                    // empty slots are filled first
+                    if(elite == null) {
+                        if(worst == -1 || worstElite != null) {
+                            worst = i;
+                            worstElite = null;
+                        }
+                    } else if(elite.makespan == makespan && Arrays.equals(elite.order.tasksOrderPerMachine, order.tasksOrderPerMachine)) {
+                        return false;
+                    } else if(worst == -1 || (worstElite != null && elite.makespan > worstElite.makespan)) {
+                        worst = i;
+                        worstElite = elite;
+                    }
+                }
+                if(worstElite != null && worstElite.makespan <= makespan) {
+                    return false;
+                }
+                if(candidate == null) {
+                    candidate = new Elite(makespan, order.copy());
+                }
+                if(slots.compareAndSet(worst, worstElite, candidate)) {
+                    return true;
+                }
+            }
+        }
+
+        /** Returns the best elite solution, null if the pool is empty. */
+        Elite best() {
+            Elite best = null;
+            for(int i = 0; i < slots.length(); i++) {
+                Elite elite = slots.get(i);
+                if(elite != null && (best == null || elite.makespan < best.makespan)) {
+                    best = elite;
+                }
+            }
+            return best;
+        }
+
+        /** Returns an elite solution chosen uniformly at random, null if the pool is empty. */
+        Elite random(Random random) {
+            int start = random.nextInt(slots.length());
+            for(int i = 0; i < slots.length(); i++) {
+                Elite elite = slots.get((start + i) % slots.length());
+                if(elite != null) {
+                    return elite;
+                }
+            }
+            return null;
+        }
+    }
+
+    int tabooDuration;
+    int stagnationLimit;
+    int elitePoolSize;
+    int parallelism;
+    long seed;
+
+    /**
+     * @param tabooDuration number of iterations during which the reverse of a move is taboo
+     * @param stagnationLimit number of iterations without improvement after which a thread restarts from the elite pool
+     * @param elitePoolSize maximum number of solutions in the elite pool
+     * @param parallelism number of threads running a taboo search
+     * @param seed seed of the randomized starts and of the choice of elite solutions
+     */
+    public CooperativeTabooSolver(int tabooDuration, int stagnationLimit, int elitePoolSize, int parallelism, long seed) {
+        this.tabooDuration = tabooDuration;
+        this.stagnationLimit = stagnationLimit;
+        this.elitePoolSize = elitePoolSize;
+        this.parallelism = parallelism;
+        this.seed = seed;
+    }
+
+    @Override
+    public int parallelism() {
+        return parallelism;
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline) {
+        return solve(instance, deadline, SolverMetrics.NONE);
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline, SolverMetrics metrics) {
+        ElitePool elites = new ElitePool(elitePoolSize);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<?>> workers = new ArrayList<>(parallelism);
+            for(int w = 0; w < parallelism; w++) {
+                int worker = w;
+                workers.add(pool.submit(() -> search(instance, deadline, worker, elites, metrics)));
+            }
+            for(ForkJoinTask<?> worker : workers) {
+                worker.join();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        return new Result(instance, elites.best().order.toSchedule(), Result.ExitCause.Timeout);
+    }
+
+    /** Taboo search of one thread, until the deadline. */
+    private void search(Instance instance, long deadline, int worker, ElitePool elites, SolverMetrics metrics) {
+        Random random = new Random(seed + worker);
+        // only used to perform the iterations, with a sequential evaluation of the neighbors
+        TabooSolver taboo = new TabooSolver(tabooDuration, Integer.MAX_VALUE, false, false, false);
+        IncrementalEvaluator[] scratches = new IncrementalEvaluator[1];
+
+        IncrementalEvaluator current = new IncrementalEvaluator(MultiStartDescentSolver.startingSolution(instance, worker, seed));
+        elites.offer(current.makespan(), current.order);
+        int bestMakespan = current.makespan();
+        metrics.improvement(bestMakespan);
+
+        TabooList tabooSolutions = new TabooList(instance);
+
+        int k = 0;
+        int lastImprovement = 0;
+        while(System.currentTimeMillis() < deadline) {
+            k++;
+
+            taboo.iterate(current, tabooSolutions, k, bestMakespan, scratches, null, null, metrics);
+            if(current.makespan() < bestMakespan) {
+                bestMakespan = current.makespan();
+                metrics.improvement(bestMakespan);
+                lastImprovement = k;
+                elites.offer(current.makespan(), current.order);
+            }
+
+            if(k - lastImprovement > stagnationLimit) {
+                Elite initiating = elites.random(random);
+                Elite guiding = elites.random(random);
+                current.order.copyFrom(initiating.order);
+                current.evaluate();
+                relink(current, guiding.order, random);
+                metrics.decodes(1);
+                // the thread now looks for improvements of the solution it restarts from
+                bestMakespan = current.makespan();
+                lastImprovement = k;
+            }
+        }
+    }
+
+    /**
+     * Moves the evaluated solution halfway towards the guiding solution : tasks that are not at the same position
+     * as in the guiding solution are moved to this position with swaps of adjacent tasks, as long as these swaps
+     * cannot create a cycle, until half of the differences have been removed.
+     */
+    static void relink(IncrementalEvaluator current, CompactResourceOrder guiding, Random random) {
+        CompactResourceOrder order = current.order;
+        int numJobs = current.instance.numJobs;
+        int numMachines = current.instance.numMachines;
+
+        int differences = 0;
+        for(int i = 0; i < order.tasksOrderPerMachine.length; i++) {
+            if(order.tasksOrderPerMachine[i] != guiding.tasksOrderPerMachine[i]) {
+                differences++;
+            }
+        }
+
+        int fixed = 0;
+        int firstMachine = random.nextInt(numMachines);
+        for(int m = 0; m < numMachines && 2 * fixed < differences; m++) {
+            int machine = (firstMachine + m) % numMachines;
+            for(int index = 0; index < numJobs && 2 * fixed < differences; index++) {
+                int wanted = guiding.taskAt(machine, index);
+                int position = order.indexOf(wanted);
+                if(position == index) {
+                    continue;
+                }
+                while(position > index && current.isSwapFeasible(machine, position - 1)) {
+                    current.swap(machine, position - 1);
+                    position--;
+                }
+                if(position == index) {
+                    fixed++;
+                }
+            }
+        }
+    }
+}
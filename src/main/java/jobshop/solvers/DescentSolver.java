@@ -1,6 +1,7 @@
 package jobshop.solvers;
 
 import jobshop.*;
+import jobshop.encodings.CompactResourceOrder;
 import jobshop.encodings.ResourceOrder;
 import jobshop.encodings.Task;
 
@@ -34,14 +35,6 @@ public class DescentSolver implements Solver {
             this.firstTask = firstTaskIndexInResourceQueue;
             this.lastTask = lastTaskIndexInResourceQueue;
         }
-
-        Block(ResourceOrder order, int machine, int taskCount, Task firstTask) {
-            int firstTaskIndexInResourceQueue = order.tasksOrderPerMachine[machine].indexOf(firstTask);
-            int lastTaskIndexInResourceQueue = firstTaskIndexInResourceQueue + taskCount - 1;
-            this.machine = machine;
-            this.firstTask = firstTaskIndexInResourceQueue;
-            this.lastTask = lastTaskIndexInResourceQueue;
-        }
     }
 
     /**
@@ -107,67 +100,121 @@ public class DescentSolver implements Solver {
 
     @Override
     public Result solve(Instance instance, long deadline) {
+        return solve(instance, deadline, SolverMetrics.NONE);
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline, SolverMetrics metrics) {
 
         Solver solver = new GreedySolver(this.earliestStartTimeMode, this.remainingProcessingTimeMode, this.crescentOrder);
 
-        ResourceOrder bestSolution = null;
-        int bestMakespan = Integer.MAX_VALUE;
-
-        ResourceOrder bestNeighborSolution = new ResourceOrder(solver.solve(instance, -1).schedule);
-        int bestNeighborMakespan = bestNeighborSolution.toSchedule().makespan();
-
-        while(bestNeighborMakespan < bestMakespan && System.currentTimeMillis() < deadline) {
-            bestSolution = bestNeighborSolution;
-            bestMakespan = bestNeighborMakespan;
-
-            List<Block> blocks = blocksOfCriticalPath(bestSolution);
-            for(Block currentBlock : blocks) {
-                List<Swap> blockNeighbors = neighbors(currentBlock);
-                for(Swap currentSwap : blockNeighbors) {
-                    ResourceOrder currentNeighborSolution = bestSolution.copy();
-                    currentSwap.applyOn(currentNeighborSolution);
-                    int currentNeighborMakespan = currentNeighborSolution.toSchedule().makespan();
-                    if(currentNeighborMakespan < bestNeighborMakespan) {
-                        bestNeighborSolution = currentNeighborSolution;
-                        bestNeighborMakespan = currentNeighborMakespan;
-                    }
-                }
-            }
+        IncrementalEvaluator evaluator = new IncrementalEvaluator(new CompactResourceOrder(solver.solve(instance, -1).schedule));
+        int lowerBound = LowerBound.of(instance);
+        if(evaluator.makespan() > lowerBound) {
+            descent(evaluator, deadline, metrics, new MakespanCache(MakespanCache.DEFAULT_CAPACITY));
+        } else {
+            metrics.improvement(evaluator.makespan());
         }
 
         Result.ExitCause exitCause = Result.ExitCause.Blocked;
-        if(System.currentTimeMillis() >= deadline) {
+        if(evaluator.makespan() == lowerBound) {
+            exitCause = Result.ExitCause.ProvedOptimal;
+        } else if(System.currentTimeMillis() >= deadline) {
             exitCause = Result.ExitCause.Timeout;
         }
-        return new Result(instance, bestSolution.toSchedule(), exitCause);
+        return new Result(instance, evaluator.toSchedule(), exitCause);
     }
 
-    /** Returns a list of all blocks of the critical path. */
-    static List<Block> blocksOfCriticalPath(ResourceOrder order) {
-        List<Task> criticalPath = order.toSchedule().criticalPath();
-        List<Block> blocks = new ArrayList<>(criticalPath.size() / 2);
-
-        int currentBlockResource = -1;
-        int currentBlockTaskCount = 0;
-        Task currentBlockFirstTask = null;
-
-        for(Task currentTask : criticalPath) {
-            int currentTaskResource = order.instance.machine(currentTask);
-            if(currentTaskResource != currentBlockResource) {
-                if(currentBlockTaskCount > 1) {
-                    blocks.add(new Block(order, currentBlockResource, currentBlockTaskCount, currentBlockFirstTask));
+    /**
+     * Applies the best improving swap of the Nowicki and Smutnicki neighborhood on the evaluated solution
+     * until no swap improves the makespan (or until the deadline).
+     *
+     * Neighbors are compared with their makespan estimate, which is a lower bound of their makespan :
+     * candidates are evaluated exactly from the lowest estimate on, and the search for the best one stops as soon as
+     * no remaining estimate is better than the best makespan found, so the applied swap is the best improving one.
+     * Every improving swap is an iteration of the given metrics, which also receive the makespan of the starting
+     * solution and of each improvement.
+     */
+    static void descent(IncrementalEvaluator evaluator, long deadline, SolverMetrics metrics) {
+        descent(evaluator, deadline, metrics, null);
+    }
+
+    /**
+     * Descent remembering the makespans of the solutions it evaluates in the given cache, shared by the descents
+     * of a thread : a candidate whose makespan is known is not applied to be evaluated.
+     * The descent reaches the same local optimum as without cache.
+     */
+    static void descent(IncrementalEvaluator evaluator, long deadline, SolverMetrics metrics, MakespanCache cache) {
+        metrics.improvement(evaluator.makespan());
+        if(cache != null) {
+            cache.put(evaluator.hash(), evaluator.makespan());
+        }
+        boolean improved = true;
+        while(improved && System.currentTimeMillis() < deadline) {
+            improved = false;
+
+            // the candidates and their estimates are kept in the buffers of the evaluator
+            int numCandidates = evaluator.criticalMoves();
+            int[] candidates = evaluator.moves;
+            int[] estimates = evaluator.moveValues;
+            for(int i = 0; i < numCandidates; i++) {
+                estimates[i] = evaluator.estimate(candidates[2 * i], candidates[2 * i + 1]);
+            }
+            metrics.neighbors(numCandidates);
+
+            // best improving candidate, tried candidates are discarded by setting their estimate to MAX_VALUE
+            int bestCandidate = -1;
+            int bestMakespan = evaluator.makespan();
+            while(true) {
+                int candidate = -1;
+                for(int i = 0; i < numCandidates; i++) {
+                    if(estimates[i] < bestMakespan && (candidate == -1 || estimates[i] < estimates[candidate])) {
+                        candidate = i;
+                    }
+                }
+                if(candidate == -1) {
+                    break;
+                }
+                int machine = candidates[2 * candidate];
+                int index = candidates[2 * candidate + 1];
+                estimates[candidate] = Integer.MAX_VALUE;
+                int makespan = cache != null ? cache.get(evaluator.hashAfterSwap(machine, index)) : MakespanCache.UNKNOWN;
+                if(makespan == MakespanCache.UNKNOWN) {
+                    metrics.decodes(1);
+                    makespan = evaluator.swap(machine, index);
+                    if(cache != null) {
+                        cache.put(evaluator.hash(), makespan);
+                    }
+                    // swapping the same tasks again restores the current solution
+                    evaluator.swap(machine, index);
+                }
+                if(makespan < bestMakespan) {
+                    bestCandidate = candidate;
+                    bestMakespan = makespan;
                 }
-                currentBlockResource = currentTaskResource;
-                currentBlockTaskCount = 1;
-                currentBlockFirstTask = currentTask;
-            } else {
-                currentBlockTaskCount++;
+            }
+
+            if(bestCandidate != -1) {
+                evaluator.swap(candidates[2 * bestCandidate], candidates[2 * bestCandidate + 1]);
+                improved = true;
+                metrics.iteration();
+                metrics.improvement(evaluator.makespan());
             }
         }
-        if(currentBlockTaskCount > 1) {
-            blocks.add(new Block(order, currentBlockResource, currentBlockTaskCount, currentBlockFirstTask));
-        }
+    }
 
+    /** Returns a list of all blocks of the critical path. */
+    static List<Block> blocksOfCriticalPath(ResourceOrder order) {
+        Schedule schedule = order.toSchedule();
+        int[] criticalPath = new int[order.instance.numJobs * order.instance.numTasks];
+        int length = schedule.criticalPath(criticalPath);
+        int[] blockBounds = new int[3 * (length / 2)];
+        int count = schedule.criticalBlocks(criticalPath, length, blockBounds);
+
+        List<Block> blocks = new ArrayList<>(count);
+        for(int b = 0; b < count; b++) {
+            blocks.add(new Block(blockBounds[3 * b], blockBounds[3 * b + 1], blockBounds[3 * b + 2]));
+        }
         return blocks;
     }
 
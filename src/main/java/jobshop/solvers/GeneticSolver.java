@@ -0,0 +1,362 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Solver;
+import jobshop.SolverMetrics;
+import jobshop.encodings.CompactResourceOrder;
+import jobshop.encodings.JobNumbers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Steady-state genetic algorithm on the JobNumbers representation.
+ *
+ * At each generation, children are bred from parents chosen by binary tournaments, with the generalized order
+ * crossover (GOX) or the precedence preserving crossover (PPX) followed by a random swap mutation. Each child
+ * replaces the worst individual of the population if it is better and not already in the population.
+ *
+ * In memetic mode, every child is improved by the descent of DescentSolver before being inserted, and its job
+ * sequence is rewritten from the improved schedule (Lamarckian learning).
+ *
+ * Children are bred sequentially from a single random generator, and only their evaluation is split between
+ * threads, so that the search only depends on the seed and on the number of generations done before the deadline.
+ */
+public class GeneticSolver implements Solver {
+
+    /**
+     * Crossovers of job sequences. A gene is identified by the task it decodes into : the k-th occurrence of job j
+     * in a sequence is the task (j, k), of id j * numTasks + k.
+     */
+    static final class Crossover {
+        private final int numJobs;
+        private final int numTasks;
+        private final int[] occurrences;
+        private final int[] otherOccurrences;
+        private final int[] childOccurrences;
+        private final boolean[] used;
+
+        Crossover(Instance instance) {
+            numJobs = instance.numJobs;
+            numTasks = instance.numTasks;
+            occurrences = new int[numJobs];
+            otherOccurrences = new int[numJobs];
+            childOccurrences = new int[numJobs];
+            used = new boolean[numJobs * numTasks];
+        }
+
+        /**
+         * Generalized order crossover : the genes of donor[from..to) are implanted in the receiver at the position of
+         * the first of them, and removed from the rest of the receiver.
+         */
+        void gox(int[] receiver, int[] donor, int from, int to, int[] child) {
+            Arrays.fill(occurrences, 0);
+            Arrays.fill(used, false);
+            for(int i = 0; i < from; i++) {
+                occurrences[donor[i]]++;
+            }
+            int first = donor[from] * numTasks + occurrences[donor[from]];
+            for(int i = from; i < to; i++) {
+                used[donor[i] * numTasks + occurrences[donor[i]]++] = true;
+            }
+
+            Arrays.fill(occurrences, 0);
+            int size = 0;
+            for(int job : receiver) {
+                int gene = job * numTasks + occurrences[job]++;
+                if(gene == first) {
+                    System.arraycopy(donor, from, child, size, to - from);
+                    size += to - from;
+                }
+                if(!used[gene]) {
+                    child[size++] = job;
+                }
+            }
+            assert size == child.length;
+        }
+
+        /**
+         * Precedence preserving crossover : each gene of the child is the first gene not taken yet of one of the parents,
+         * the parent being chosen at random for each gene.
+         */
+        void ppx(int[] parent1, int[] parent2, int[] child, Random random) {
+            Arrays.fill(used, false);
+            // occurrences of each job before the next gene of parent1, of parent2 and in the child
+            int[] occurrences1 = occurrences;
+            int[] occurrences2 = otherOccurrences;
+            Arrays.fill(occurrences1, 0);
+            Arrays.fill(occurrences2, 0);
+            Arrays.fill(childOccurrences, 0);
+
+            int next1 = 0;
+            int next2 = 0;
+            for(int size = 0; size < child.length; size++) {
+                int job;
+                if(random.nextBoolean()) {
+                    while(used[parent1[next1] * numTasks + occurrences1[parent1[next1]]]) {
+                        occurrences1[parent1[next1++]]++;
+                    }
+                    job = parent1[next1];
+                } else {
+                    while(used[parent2[next2] * numTasks + occurrences2[parent2[next2]]]) {
+                        occurrences2[parent2[next2++]]++;
+                    }
+                    job = parent2[next2];
+                }
+                // the taken gene is the next occurrence of its job in the child, it is now taken in both parents
+                used[job * numTasks + childOccurrences[job]++] = true;
+                child[size] = job;
+            }
+        }
+    }
+
+    /** Buffers used to evaluate individuals, one set per thread. */
+    private static final class Evaluation {
+        final int[] nextTask;
+        final int[] jobEnd;
+        final int[] machineEnd;
+        final int[] machineSizes;
+        final long[] keys;
+        final CompactResourceOrder order;
+        // created from the first improved individual
+        IncrementalEvaluator evaluator;
+
+        Evaluation(Instance instance) {
+            nextTask = new int[instance.numJobs];
+            jobEnd = new int[instance.numJobs];
+            machineEnd = new int[instance.numMachines];
+            machineSizes = new int[instance.numMachines];
+            keys = new long[instance.numJobs * instance.numTasks];
+            order = new CompactResourceOrder(instance);
+        }
+    }
+
+    int populationSize;
+    double mutationRate;
+    boolean precedencePreservingCrossover;
+    boolean memetic;
+    int parallelism;
+    long seed;
+
+    /**
+     * @param populationSize number of individuals of the population
+     * @param mutationRate probability that a child is mutated
+     * @param precedencePreservingCrossover if true then children are bred with PPX, otherwise with GOX
+     * @param memetic if true then every child is improved by a descent before being inserted in the population
+     * @param parallelism number of threads evaluating the children
+     * @param seed seed of the random generator
+     */
+    public GeneticSolver(int populationSize, double mutationRate, boolean precedencePreservingCrossover, boolean memetic,
+                         int parallelism, long seed) {
+        this.populationSize = populationSize;
+        this.mutationRate = mutationRate;
+        this.precedencePreservingCrossover = precedencePreservingCrossover;
+        this.memetic = memetic;
+        this.parallelism = parallelism;
+        this.seed = seed;
+    }
+
+    @Override
+    public int parallelism() {
+        return parallelism;
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline) {
+        return solve(instance, deadline, SolverMetrics.NONE);
+    }
+
+    /** Every generation is an iteration of the metrics, every evaluated individual a decode. */
+    @Override
+    public Result solve(Instance instance, long deadline, SolverMetrics metrics) {
+        Random random = new Random(seed);
+        int length = instance.numJobs * instance.numTasks;
+
+        // the children of a generation are split in one chunk of 4 children per thread
+        int numChildren = 4 * parallelism;
+        Evaluation[] evaluations = new Evaluation[parallelism];
+        for(int c = 0; c < parallelism; c++) {
+            evaluations[c] = new Evaluation(instance);
+        }
+        ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+
+        try {
+            JobNumbers[] population = new JobNumbers[populationSize];
+            int[] fitness = new int[populationSize];
+            for(int i = 0; i < populationSize; i++) {
+                population[i] = new JobNumbers(instance);
+                for(int j = 0; j < instance.numJobs; j++) {
+                    for(int t = 0; t < instance.numTasks; t++) {
+                        population[i].jobs[population[i].nextToSet++] = j;
+                    }
+                }
+                shuffle(population[i].jobs, random);
+            }
+            evaluate(population, fitness, deadline, evaluations, pool);
+            metrics.decodes(populationSize);
+            for(int i = 0; i < populationSize; i++) {
+                metrics.improvement(fitness[i]);
+            }
+
+            JobNumbers[] children = new JobNumbers[numChildren];
+            int[] childrenFitness = new int[numChildren];
+            for(int i = 0; i < numChildren; i++) {
+                children[i] = new JobNumbers(instance);
+                children[i].nextToSet = length;
+            }
+            Crossover crossover = new Crossover(instance);
+
+            while(System.currentTimeMillis() < deadline) {
+                for(JobNumbers child : children) {
+                    int[] parent1 = population[tournament(fitness, random)].jobs;
+                    int[] parent2 = population[tournament(fitness, random)].jobs;
+                    if(precedencePreservingCrossover) {
+                        crossover.ppx(parent1, parent2, child.jobs, random);
+                    } else {
+                        // donor substring of a third to a half of the sequence
+                        int size = length / 3 + random.nextInt(length / 2 - length / 3 + 1);
+                        int from = random.nextInt(length - size + 1);
+                        crossover.gox(parent1, parent2, from, from + size, child.jobs);
+                    }
+                    if(random.nextDouble() < mutationRate) {
+                        swap(child.jobs, random.nextInt(length), random.nextInt(length));
+                    }
+                }
+
+                evaluate(children, childrenFitness, deadline, evaluations, pool);
+                metrics.iteration();
+                metrics.decodes(numChildren);
+
+                for(int i = 0; i < numChildren; i++) {
+                    metrics.improvement(childrenFitness[i]);
+                    insert(population, fitness, children[i], childrenFitness[i]);
+                }
+            }
+
+            int best = 0;
+            for(int i = 1; i < populationSize; i++) {
+                if(fitness[i] < fitness[best]) {
+                    best = i;
+                }
+            }
+            return new Result(instance, population[best].toSchedule(), Result.ExitCause.Timeout);
+        } finally {
+            if(pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /** Evaluates all the given individuals, in one contiguous chunk per thread. */
+    private void evaluate(JobNumbers[] individuals, int[] fitness, long deadline, Evaluation[] evaluations, ForkJoinPool pool) {
+        int size = individuals.length;
+        if(pool == null) {
+            evaluate(individuals, fitness, 0, size, deadline, evaluations[0]);
+            return;
+        }
+
+        List<ForkJoinTask<?>> chunks = new ArrayList<>(parallelism - 1);
+        for(int c = 1; c < parallelism; c++) {
+            int from = c * size / parallelism;
+            int to = (c + 1) * size / parallelism;
+            Evaluation evaluation = evaluations[c];
+            chunks.add(pool.submit(() -> evaluate(individuals, fitness, from, to, deadline, evaluation)));
+        }
+        // the first chunk is evaluated by the calling thread
+        evaluate(individuals, fitness, 0, size / parallelism, deadline, evaluations[0]);
+        for(ForkJoinTask<?> chunk : chunks) {
+            chunk.join();
+        }
+    }
+
+    private void evaluate(JobNumbers[] individuals, int[] fitness, int from, int to, long deadline, Evaluation evaluation) {
+        for(int i = from; i < to; i++) {
+            if(memetic) {
+                fitness[i] = improve(individuals[i], deadline, evaluation);
+            } else {
+                fitness[i] = individuals[i].makespan(evaluation.nextTask, evaluation.jobEnd, evaluation.machineEnd);
+            }
+        }
+    }
+
+    /**
+     * Improves the given individual with a descent on its resource order, and rewrites its sequence
+     * so that it decodes into the improved schedule.
+     * @return the makespan of the improved individual
+     */
+    private static int improve(JobNumbers individual, long deadline, Evaluation evaluation) {
+        Instance instance = individual.instance;
+        CompactResourceOrder order = evaluation.order;
+
+        // machine sequences are the order in which the tasks are decoded
+        int[] nextTask = evaluation.nextTask;
+        int[] machineSizes = evaluation.machineSizes;
+        Arrays.fill(nextTask, 0);
+        Arrays.fill(machineSizes, 0);
+        for(int job : individual.jobs) {
+            int id = instance.taskId(job, nextTask[job]++);
+            int machine = instance.machineOf(id);
+            order.tasksOrderPerMachine[machine * instance.numJobs + machineSizes[machine]] = id;
+            order.positions[id] = machineSizes[machine]++;
+        }
+        if(evaluation.evaluator == null) {
+            evaluation.evaluator = new IncrementalEvaluator(order);
+        } else {
+            evaluation.evaluator.evaluate();
+        }
+        IncrementalEvaluator evaluator = evaluation.evaluator;
+        DescentSolver.descent(evaluator, deadline, SolverMetrics.NONE);
+
+        // sorting the tasks by start time gives a sequence decoding into the same schedule
+        long[] keys = evaluation.keys;
+        for(int id = 0; id < keys.length; id++) {
+            keys[id] = ((long) evaluator.head(id) << 32) | id;
+        }
+        Arrays.sort(keys);
+        for(int i = 0; i < keys.length; i++) {
+            individual.jobs[i] = (int) keys[i] / instance.numTasks;
+        }
+        return evaluator.makespan();
+    }
+
+    /** Replaces the worst individual of the population by the given child if it is better and not already in the population. */
+    private static void insert(JobNumbers[] population, int[] fitness, JobNumbers child, int childFitness) {
+        int worst = 0;
+        for(int i = 0; i < population.length; i++) {
+            if(fitness[i] == childFitness && Arrays.equals(population[i].jobs, child.jobs)) {
+                return;
+            }
+            if(fitness[i] > fitness[worst]) {
+                worst = i;
+            }
+        }
+        if(childFitness < fitness[worst]) {
+            System.arraycopy(child.jobs, 0, population[worst].jobs, 0, child.jobs.length);
+            fitness[worst] = childFitness;
+        }
+    }
+
+    /** Returns the best of two individuals chosen at random. */
+    private static int tournament(int[] fitness, Random random) {
+        int i1 = random.nextInt(fitness.length);
+        int i2 = random.nextInt(fitness.length);
+        return fitness[i2] < fitness[i1] ? i2 : i1;
+    }
+
+    private static void shuffle(int[] array, Random random) {
+        for(int i = array.length - 1; i > 0; i--) {
+            swap(array, i, random.nextInt(i + 1));
+        }
+    }
+
+    private static void swap(int[] array, int i, int j) {
+        int tmp = array[i];
+        array[i] = array[j];
+        array[j] = tmp;
+    }
+}
@@ -0,0 +1,207 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Solver;
+import jobshop.SolverMetrics;
+import jobshop.encodings.CompactResourceOrder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Greedy randomized adaptive search procedure : builds randomized greedy solutions, improves each of them with the
+ * descent of DescentSolver and repeats in parallel until the deadline.
+ *
+ * A solution is built like in GreedySolver, with one of its eight priority rules chosen at random, except that the
+ * dispatched task is not always the best one : it is chosen uniformly in a restricted candidate list containing
+ * every realizable task whose value is at most min + alpha * (max - min). The value of a task is its earliest start
+ * time for the EST rules, its priority for the others. For the EST rules, the list is then restricted the same way by
+ * the priorities of its tasks, so that the four EST rules differ. alpha = 0 only keeps the best candidates,
+ * alpha = 1 keeps them all.
+ *
+ * Each thread has its own random generator seeded with seed + thread number.
+ */
+public class GraspSolver implements Solver {
+
+    /**
+     * Randomized greedy construction, with buffers reused from one solution to the next.
+     * Rules are numbered like the starts of MultiStartDescentSolver : bit 4 for the EST mode,
+     * bit 2 for the remaining processing time mode and bit 1 for the crescent order.
+     */
+    static final class Construction {
+        final Instance instance;
+        final double alpha;
+
+        /** Priority of every task id, for each of the eight rules */
+        private final int[][] priorities = new int[8][];
+        private final int[] nextTask;
+        private final int[] jobEnd;
+        private final int[] machineEnd;
+        private final int[] machineSizes;
+        private final int[] values;
+
+        Construction(Instance instance, double alpha) {
+            this.instance = instance;
+            this.alpha = alpha;
+            for(int rule = 0; rule < 8; rule++) {
+                priorities[rule] = new GreedySolver((rule & 4) != 0, (rule & 2) != 0, (rule & 1) != 0).priorities(instance);
+            }
+            nextTask = new int[instance.numJobs];
+            jobEnd = new int[instance.numJobs];
+            machineEnd = new int[instance.numMachines];
+            machineSizes = new int[instance.numMachines];
+            values = new int[instance.numJobs];
+        }
+
+        /** Overwrites the given resource order with a randomized greedy solution following the given rule. */
+        void build(CompactResourceOrder order, int rule, Random random) {
+            int numJobs = instance.numJobs;
+            int numTasks = instance.numTasks;
+            boolean earliestStartTimeMode = (rule & 4) != 0;
+            int[] rulePriorities = priorities[rule];
+
+            Arrays.fill(nextTask, 0);
+            Arrays.fill(jobEnd, 0);
+            Arrays.fill(machineEnd, 0);
+            Arrays.fill(machineSizes, 0);
+
+            for(int step = 0; step < numJobs * numTasks; step++) {
+                int min = Integer.MAX_VALUE;
+                int max = Integer.MIN_VALUE;
+                for(int j = 0; j < numJobs; j++) {
+                    if(nextTask[j] < numTasks) {
+                        int id = instance.taskId(j, nextTask[j]);
+                        values[j] = earliestStartTimeMode ? Math.max(jobEnd[j], machineEnd[instance.machineOf(id)]) : rulePriorities[id];
+                        min = Math.min(min, values[j]);
+                        max = Math.max(max, values[j]);
+                    }
+                }
+
+                long threshold = min + (long) (alpha * ((long) max - min));
+                long priorityThreshold = Long.MAX_VALUE;
+                if(earliestStartTimeMode) {
+                    // the candidates of earliest start time are restricted by their priority
+                    int minPriority = Integer.MAX_VALUE;
+                    int maxPriority = Integer.MIN_VALUE;
+                    for(int j = 0; j < numJobs; j++) {
+                        if(nextTask[j] < numTasks && values[j] <= threshold) {
+                            int priority = rulePriorities[instance.taskId(j, nextTask[j])];
+                            minPriority = Math.min(minPriority, priority);
+                            maxPriority = Math.max(maxPriority, priority);
+                        }
+                    }
+                    priorityThreshold = minPriority + (long) (alpha * ((long) maxPriority - minPriority));
+                }
+
+                // uniform choice in the restricted candidate list
+                int candidates = 0;
+                for(int j = 0; j < numJobs; j++) {
+                    if(isCandidate(j, threshold, rulePriorities, priorityThreshold)) {
+                        candidates++;
+                    }
+                }
+                int chosen = random.nextInt(candidates);
+                int job = -1;
+                for(int j = 0; j < numJobs && chosen >= 0; j++) {
+                    if(isCandidate(j, threshold, rulePriorities, priorityThreshold)) {
+                        job = j;
+                        chosen--;
+                    }
+                }
+
+                int id = instance.taskId(job, nextTask[job]++);
+                int machine = instance.machineOf(id);
+                jobEnd[job] = Math.max(jobEnd[job], machineEnd[machine]) + instance.durationOf(id);
+                machineEnd[machine] = jobEnd[job];
+                order.tasksOrderPerMachine[machine * numJobs + machineSizes[machine]] = id;
+                order.positions[id] = machineSizes[machine]++;
+            }
+        }
+
+        /** Returns true if the realizable task of the given job is in the restricted candidate list. */
+        private boolean isCandidate(int job, long threshold, int[] rulePriorities, long priorityThreshold) {
+            return nextTask[job] < instance.numTasks && values[job] <= threshold
+                    && rulePriorities[instance.taskId(job, nextTask[job])] <= priorityThreshold;
+        }
+    }
+
+    double alpha;
+    int parallelism;
+    long seed;
+
+    /**
+     * @param alpha size of the restricted candidate list, between 0 (greedy) and 1 (uniformly random)
+     * @param parallelism number of threads building and improving solutions
+     * @param seed seed of the random generators of the threads
+     */
+    public GraspSolver(double alpha, int parallelism, long seed) {
+        this.alpha = alpha;
+        this.parallelism = parallelism;
+        this.seed = seed;
+    }
+
+    @Override
+    public int parallelism() {
+        return parallelism;
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline) {
+        return solve(instance, deadline, SolverMetrics.NONE);
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline, SolverMetrics metrics) {
+        AtomicReference<MultiStartDescentSolver.BestSolution> best = new AtomicReference<>(null);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<?>> workers = new ArrayList<>(parallelism);
+            for(int w = 0; w < parallelism; w++) {
+                Random random = new Random(seed + w);
+                workers.add(pool.submit(() -> search(instance, deadline, random, best, metrics)));
+            }
+            for(ForkJoinTask<?> worker : workers) {
+                worker.join();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        if(best.get() == null) {
+            // the deadline was reached before any solution could be built
+            CompactResourceOrder order = new CompactResourceOrder(instance);
+            new Construction(instance, alpha).build(order, 0, new Random(seed));
+            MultiStartDescentSolver.publish(best, new IncrementalEvaluator(order));
+        }
+        return new Result(instance, best.get().order.toSchedule(), Result.ExitCause.Timeout);
+    }
+
+    /** Construction and descent loop of one thread, until the deadline. */
+    private void search(Instance instance, long deadline, Random random, AtomicReference<MultiStartDescentSolver.BestSolution> best,
+                        SolverMetrics metrics) {
+        Construction construction = new Construction(instance, alpha);
+        // descents from different constructions often meet the same solutions
+        MakespanCache cache = new MakespanCache(MakespanCache.DEFAULT_CAPACITY);
+        IncrementalEvaluator evaluator = null;
+        while(System.currentTimeMillis() < deadline) {
+            if(evaluator == null) {
+                CompactResourceOrder order = new CompactResourceOrder(instance);
+                construction.build(order, random.nextInt(8), random);
+                evaluator = new IncrementalEvaluator(order);
+            } else {
+                construction.build(evaluator.order, random.nextInt(8), random);
+                evaluator.evaluate();
+            }
+            metrics.decodes(1);
+            DescentSolver.descent(evaluator, deadline, metrics, cache);
+            MultiStartDescentSolver.publish(best, evaluator);
+        }
+    }
+}
@@ -4,10 +4,6 @@ import jobshop.Instance;
 import jobshop.Result;
 import jobshop.Schedule;
 import jobshop.Solver;
-import jobshop.encodings.ResourceOrder;
-import jobshop.encodings.Task;
-
-import java.util.*;
 
 public class GreedySolver implements Solver {
 
@@ -15,73 +11,99 @@ public class GreedySolver implements Solver {
     boolean crescentOrder;
     boolean remainingProcessingTimeMode;
 
-    private static int getProcessingTime(Task task, Instance instance) {
-        return instance.duration(task.job, task.task);
-    }
+    /**
+     * Binary heap of jobs, ordered by the key of their realizable task : earliest start time (only in earliest start
+     * time mode), then priority, then job number so that ties are always broken the same way.
+     * The index of every job in the heap is stored, so that the key of a job can be updated in O(log numJobs).
+     */
+    static final class JobHeap {
+        private final int[] heap;
+        private final int[] indices;
+        private final int[] startTimes;
+        private final int[] priorities;
+        private int size;
+
+        /**
+         * @param startTimes earliest start time of the realizable task of each job, all zeros to ignore them
+         * @param priorities priority of the realizable task of each job, the lowest first
+         */
+        JobHeap(int[] startTimes, int[] priorities) {
+            this.heap = new int[startTimes.length];
+            this.indices = new int[startTimes.length];
+            this.startTimes = startTimes;
+            this.priorities = priorities;
+        }
 
-    private static int getRemainingProcessingTime(Task task, Instance instance) {
-        int remainingJobTime = 0;
-        for (int i=task.task; i<instance.numTasks; i++) {
-            remainingJobTime += instance.duration(task.job, i);
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void add(int job) {
+            heap[size] = job;
+            indices[job] = size;
+            size++;
+            siftUp(size - 1);
         }
-        return remainingJobTime;
-    }
 
-    private Comparator<Task> getProcessingTimeComparator(Instance instance) {
-        Comparator<Task> crescentCmp = Comparator.comparingInt((Task o) -> {
-            if(remainingProcessingTimeMode) {
-                return getRemainingProcessingTime(o, instance);
-            } else {
-                return getProcessingTime(o, instance);
+        int poll() {
+            int first = heap[0];
+            size--;
+            if(size > 0) {
+                move(heap[size], 0);
+                siftDown(0);
             }
-        });
+            return first;
+        }
 
-        if(crescentOrder) {
-            return crescentCmp;
-        } else {
-            return crescentCmp.reversed();
+        /** Restores the heap order after the key of the given job has changed. */
+        void update(int job) {
+            int index = indices[job];
+            siftUp(index);
+            siftDown(indices[job]);
         }
-    }
 
-    //i hope java handles closures, and that the pointer "times" is going to be copied in the lambda function
-    private Comparator<Task> getComparator(ResourceOrder sol, int[][] times) {
-        if(earliestStartTimeMode) {
-            return (Task o1, Task o2) -> {
-                int startDateCmp = Comparator.comparingInt((Task o) -> times[o.job][o.task]).compare(o1, o2);
-                if(startDateCmp != 0) {
-                    return startDateCmp;
-                } else {
-                    return getProcessingTimeComparator(sol.instance).compare(o1, o2);
-                }
-            };
-        } else {
-            return getProcessingTimeComparator(sol.instance);
+        private boolean before(int job1, int job2) {
+            if(startTimes[job1] != startTimes[job2]) {
+                return startTimes[job1] < startTimes[job2];
+            }
+            if(priorities[job1] != priorities[job2]) {
+                return priorities[job1] < priorities[job2];
+            }
+            return job1 < job2;
         }
-    }
 
-    private static void setEarliestTaskStartDate(Task task, ResourceOrder sol, int[][] startTimes) {
-        int taskRes = sol.instance.machine(task);
-        Task previousTaskResource = null;
-        if(sol.tasksOrderPerMachine[taskRes].size() > 0) {
-            previousTaskResource = sol.tasksOrderPerMachine[taskRes].get(sol.tasksOrderPerMachine[taskRes].size() - 1);
+        private void move(int job, int index) {
+            heap[index] = job;
+            indices[job] = index;
         }
-        Task previousTaskJob = task.getPreviousJobTask();
 
-        if (previousTaskResource == null) {
-            if (previousTaskJob == null) {
-                startTimes[task.job][task.task] = 0;
-            } else if (startTimes[previousTaskJob.job][previousTaskJob.task] != -1) {
-                startTimes[task.job][task.task] = startTimes[previousTaskJob.job][previousTaskJob.task] + sol.instance.duration(previousTaskJob);
+        private void siftUp(int index) {
+            int job = heap[index];
+            while(index > 0) {
+                int parent = (index - 1) / 2;
+                if(!before(job, heap[parent])) {
+                    break;
+                }
+                move(heap[parent], index);
+                index = parent;
             }
-        } else if (startTimes[previousTaskResource.job][previousTaskResource.task] != -1) {
-            if (previousTaskJob == null) {
-                startTimes[task.job][task.task] = startTimes[previousTaskResource.job][previousTaskResource.task] + sol.instance.duration(previousTaskResource);
-            } else if (startTimes[previousTaskJob.job][previousTaskJob.task] != -1) {
-                startTimes[task.job][task.task] = Integer.max(
-                        startTimes[previousTaskJob.job][previousTaskJob.task] + sol.instance.duration(previousTaskJob),
-                        startTimes[previousTaskResource.job][previousTaskResource.task] + sol.instance.duration(previousTaskResource)
-                );
+            move(job, index);
+        }
+
+        private void siftDown(int index) {
+            int job = heap[index];
+            while(2 * index + 1 < size) {
+                int child = 2 * index + 1;
+                if(child + 1 < size && before(heap[child + 1], heap[child])) {
+                    child++;
+                }
+                if(!before(heap[child], job)) {
+                    break;
+                }
+                move(heap[child], index);
+                index = child;
             }
+            move(job, index);
         }
     }
 
@@ -97,79 +119,90 @@ public class GreedySolver implements Solver {
         this.remainingProcessingTimeMode = remainingProcessingTimeMode;
     }
 
+    /** Returns the priority of every task id, the task with the lowest priority being chosen first. */
+    int[] priorities(Instance instance) {
+        int[] priorities = new int[instance.numJobs * instance.numTasks];
+        for(int j = 0; j < instance.numJobs; j++) {
+            for(int t = 0; t < instance.numTasks; t++) {
+                int value = remainingProcessingTimeMode ? instance.remainingProcessingTime(j, t) : instance.duration(j, t);
+                priorities[instance.taskId(j, t)] = crescentOrder ? value : -value;
+            }
+        }
+        return priorities;
+    }
+
     @Override
     public Result solve(Instance instance, long deadline) {
-        ResourceOrder sol = new ResourceOrder(instance);
+        int numJobs = instance.numJobs;
+        int numTasks = instance.numTasks;
+        int[] taskPriorities = priorities(instance);
 
-        int[][] startTimes = null;
-        if(earliestStartTimeMode) {
-            startTimes = new int[instance.numJobs][instance.numTasks];
-            for (int j = 0; j < instance.numJobs; j++) {
-                Arrays.fill(startTimes[j], -1);
-            }
-        }
+        int[][] startTimes = new int[numJobs][numTasks];
+        int[] nextTask = new int[numJobs];
+        int[] jobEnd = new int[numJobs];
+        int[] machineEnd = new int[instance.numMachines];
+
+        // key of the realizable task of each job, earliest start times are left to zero if they are not used
+        int[] earliestStartTimes = new int[numJobs];
+        int[] priorities = new int[numJobs];
+        JobHeap realizableTasks = new JobHeap(earliestStartTimes, priorities);
 
-        //a list (heap actually) containing the realizable tasks
-        Comparator<Task> comparator = this.getComparator(sol, startTimes);
-        PriorityQueue<Task> realizableTasks = new PriorityQueue<Task>(instance.numJobs, comparator);
+        // jobs whose realizable task uses each machine : the jobs of machine m are stored at [m * numJobs, m * numJobs + bucketSizes[m])
+        int[] buckets = new int[instance.numMachines * numJobs];
+        int[] bucketSizes = new int[instance.numMachines];
+        int[] bucketIndices = new int[numJobs];
 
         //initialize the realizable tasks set with the first tasks of the jobs
-        for(int j=0; j<instance.numJobs; j++) {
-            Task task = new Task(j, 0);
+        for(int j = 0; j < numJobs; j++) {
+            int id = instance.taskId(j, 0);
+            priorities[j] = taskPriorities[id];
             if(earliestStartTimeMode) {
-                setEarliestTaskStartDate(task, sol, startTimes);
+                int machine = instance.machineOf(id);
+                bucketIndices[j] = bucketSizes[machine];
+                buckets[machine * numJobs + bucketSizes[machine]++] = j;
             }
-            realizableTasks.add(task);
+            realizableTasks.add(j);
         }
 
-        while (!realizableTasks.isEmpty()) {
-
-            Task chosenRealizableTask = realizableTasks.poll();
-
-            int chosenRealizableTaskMachine = instance.machine(chosenRealizableTask);
+        while(!realizableTasks.isEmpty()) {
+            int job = realizableTasks.poll();
+            int id = instance.taskId(job, nextTask[job]);
+            int machine = instance.machineOf(id);
 
-            //add the chosen task to resource order
-            sol.addTaskToResourceQueue(chosenRealizableTaskMachine, chosenRealizableTask.task, chosenRealizableTask.job);
+            int start = Math.max(jobEnd[job], machineEnd[machine]);
+            startTimes[job][nextTask[job]] = start;
+            jobEnd[job] = start + instance.durationOf(id);
+            machineEnd[machine] = jobEnd[job];
 
             if(earliestStartTimeMode) {
-                //update the earliest start time of the realizable tasks after treating the chosen task
-                ArrayList<Task> tasksToUpdate = new ArrayList<Task>(instance.numJobs);
-                Iterator<Task> iter = realizableTasks.iterator();
-                while(iter.hasNext()) {
-                    Task currentTask = iter.next();
-                    //update is necesseray only if a realizable task uses the same resource used by the chosen task
-                    if(instance.machine(currentTask) == instance.machine(chosenRealizableTask)) {
-                        setEarliestTaskStartDate(currentTask, sol, startTimes);
-                        //remove the task having a new earliest start time
-                        iter.remove();
-                        //save the task in a list to re-add it later
-                        tasksToUpdate.add(currentTask);
-                    }
-                }
-                //re-add removed tasks to update them
-                for(Task currentTask : tasksToUpdate) {
-                    realizableTasks.add(currentTask);
+                // the chosen job leaves the bucket of the machine, the last job of the bucket takes its place
+                int last = buckets[machine * numJobs + --bucketSizes[machine]];
+                buckets[machine * numJobs + bucketIndices[job]] = last;
+                bucketIndices[last] = bucketIndices[job];
+
+                //update is necessary only if a realizable task uses the same resource used by the chosen task
+                for(int i = 0; i < bucketSizes[machine]; i++) {
+                    int other = buckets[machine * numJobs + i];
+                    earliestStartTimes[other] = Math.max(jobEnd[other], machineEnd[machine]);
+                    realizableTasks.update(other);
                 }
             }
 
             //add the chosen task successor to the realizable tasks heap if it exists
-            if(chosenRealizableTask.task+1 < instance.numTasks) {
-                Task newRealizableTask = new Task(chosenRealizableTask.job, chosenRealizableTask.task + 1);
+            if(++nextTask[job] < numTasks) {
+                int successor = id + 1;
+                priorities[job] = taskPriorities[successor];
                 if(earliestStartTimeMode) {
-                    setEarliestTaskStartDate(newRealizableTask, sol, startTimes);
-
+                    int successorMachine = instance.machineOf(successor);
+                    earliestStartTimes[job] = Math.max(jobEnd[job], machineEnd[successorMachine]);
+                    bucketIndices[job] = bucketSizes[successorMachine];
+                    buckets[successorMachine * numJobs + bucketSizes[successorMachine]++] = job;
                 }
-                realizableTasks.add(newRealizableTask);
+                realizableTasks.add(job);
             }
         }
 
-        Schedule returnedSched;
-        if(earliestStartTimeMode) {
-            returnedSched = new Schedule(instance, startTimes);
-            assert returnedSched.equals(sol.toSchedule());
-        } else {
-            returnedSched = sol.toSchedule();
-        }
-        return new Result(instance, returnedSched, Result.ExitCause.Blocked);
+        // every task starts as soon as its job and machine predecessors are done, as when decoding the resource order
+        return new Result(instance, new Schedule(instance, startTimes), Result.ExitCause.Blocked);
     }
 }
@@ -0,0 +1,439 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Schedule;
+import jobshop.encodings.CompactResourceOrder;
+
+import java.util.Arrays;
+
+/**
+ * Maintains the heads and tails of every task of a solution in CompactResourceOrder representation,
+ * so that swaps of adjacent tasks can be evaluated without decoding the whole solution.
+ *
+ * For a task x of duration p(x) :
+ *  - head r(x) is the length of the longest path from the beginning of the schedule to the start of x (its start time)
+ *  - tail q(x) is the length of the longest path from the end of x to the end of the schedule
+ * so that x is critical if and only if r(x) + p(x) + q(x) equals the makespan.
+ *
+ * Tasks are identified by their id : job * numTasks + task.
+ */
+public class IncrementalEvaluator {
+
+    public final Instance instance;
+
+    /** Solution being evaluated, modified in place by {@link #swap(int, int)}. */
+    public final CompactResourceOrder order;
+
+    final int numJobs;
+    final int numTasks;
+
+    /** Duration and machine of every task id */
+    final int[] durations;
+    final int[] machines;
+
+    final int[] heads;
+    final int[] tails;
+    int makespan;
+
+    /** Zobrist hash of the evaluated solution, see CompactResourceOrder.zobristHash() */
+    private long hash;
+
+    /** Critical path computed by the last call to {@link #criticalPath()} */
+    final int[] path;
+
+    /** Blocks of the critical path computed by the last call to {@link #criticalBlocks()}, see Schedule.criticalBlocks */
+    final int[] blocks;
+
+    /**
+     * Swaps of the Nowicki and Smutnicki neighborhood computed by the last call to {@link #criticalMoves()},
+     * as pairs (machine, index of the first swapped task)
+     */
+    final int[] moves;
+
+    /** One value and one hash per move, reused by the local searches to evaluate the moves without allocating */
+    final int[] moveValues;
+    final long[] moveHashes;
+
+    // scratch buffers for the cone updates, one element per task
+    private final int[] cone;
+    private final int[] queue;
+    private final int[] inDegree;
+    private final int[] marks;
+    private int currentMark = 0;
+
+    /**
+     * Computes the heads and tails of the given solution.
+     * @param order the solution, owned by this evaluator from now on
+     */
+    public IncrementalEvaluator(CompactResourceOrder order) {
+        this.instance = order.instance;
+        this.order = order;
+        this.numJobs = instance.numJobs;
+        this.numTasks = instance.numTasks;
+
+        int numNodes = numJobs * numTasks;
+        durations = new int[numNodes];
+        machines = new int[numNodes];
+        for(int id = 0; id < numNodes; id++) {
+            durations[id] = instance.durationOf(id);
+            machines[id] = instance.machineOf(id);
+        }
+
+        heads = new int[numNodes];
+        tails = new int[numNodes];
+        path = new int[numNodes];
+        blocks = new int[3 * (numNodes / 2)];
+        moves = new int[2 * numNodes];
+        moveValues = new int[numNodes];
+        moveHashes = new long[numNodes];
+        cone = new int[numNodes];
+        queue = new int[numNodes];
+        inDegree = new int[numNodes];
+        marks = new int[numNodes];
+
+        evaluate();
+    }
+
+    /** Overwrites the evaluated solution, heads and tails with the ones of the given evaluator (of the same instance). */
+    public void copyFrom(IncrementalEvaluator evaluator) {
+        order.copyFrom(evaluator.order);
+        System.arraycopy(evaluator.heads, 0, heads, 0, heads.length);
+        System.arraycopy(evaluator.tails, 0, tails, 0, tails.length);
+        makespan = evaluator.makespan;
+        hash = evaluator.hash;
+    }
+
+    /** Recomputes all heads and tails from scratch. */
+    public void evaluate() {
+        // the queue ends up holding a topological order of the tasks, tails are computed by walking it backwards
+        makespan = order.decode(heads, inDegree, queue);
+        for(int k = queue.length - 1; k >= 0; k--) {
+            int x = queue[k];
+            tails[x] = Math.max(tailFrom(jobSuccessor(x)), tailFrom(machineSuccessor(x)));
+        }
+        hash = order.zobristHash();
+    }
+
+    public int makespan() {
+        return makespan;
+    }
+
+    /** Zobrist hash of the evaluated solution, updated in O(1) by every swap. */
+    public long hash() {
+        return hash;
+    }
+
+    /** Returns the hash of the solution obtained by swapping the tasks at index and index+1 of the machine, in O(1). */
+    public long hashAfterSwap(int machine, int index) {
+        int u = order.taskAt(machine, index);
+        int v = order.taskAt(machine, index + 1);
+        return hash
+                ^ CompactResourceOrder.zobristKey(u, index) ^ CompactResourceOrder.zobristKey(v, index + 1)
+                ^ CompactResourceOrder.zobristKey(v, index) ^ CompactResourceOrder.zobristKey(u, index + 1);
+    }
+
+    public int head(int taskId) {
+        return heads[taskId];
+    }
+
+    public int tail(int taskId) {
+        return tails[taskId];
+    }
+
+    public int duration(int taskId) {
+        return durations[taskId];
+    }
+
+    public int machine(int taskId) {
+        return machines[taskId];
+    }
+
+    public boolean isCritical(int taskId) {
+        return heads[taskId] + durations[taskId] + tails[taskId] == makespan;
+    }
+
+    int jobPredecessor(int x) {
+        return x % numTasks != 0 ? x - 1 : -1;
+    }
+
+    int jobSuccessor(int x) {
+        return x % numTasks != numTasks - 1 ? x + 1 : -1;
+    }
+
+    int machinePredecessor(int x) {
+        int index = order.positions[x];
+        return index > 0 ? order.tasksOrderPerMachine[machines[x] * numJobs + index - 1] : -1;
+    }
+
+    int machineSuccessor(int x) {
+        int index = order.positions[x];
+        return index < numJobs - 1 ? order.tasksOrderPerMachine[machines[x] * numJobs + index + 1] : -1;
+    }
+
+    /** End time of the given predecessor, 0 if there is none (-1). */
+    private int headFrom(int predecessor) {
+        return predecessor < 0 ? 0 : heads[predecessor] + durations[predecessor];
+    }
+
+    /** Length of the path starting with the given successor, 0 if there is none (-1). */
+    private int tailFrom(int successor) {
+        return successor < 0 ? 0 : tails[successor] + durations[successor];
+    }
+
+    /**
+     * Returns the makespan estimate (Taillard) of the solution obtained by swapping the tasks at index and index+1
+     * in the sequence of the given machine, without modifying the solution.
+     *
+     * The estimate is the length of the longest path going through one of the two swapped tasks.
+     * When the swap cannot create a cycle, which is always the case for adjacent tasks of the critical path,
+     * this is a lower bound of the new makespan, that is exact as soon as a critical path of the new solution
+     * goes through one of the swapped tasks.
+     */
+    public int estimate(int machine, int index) {
+        int u = order.taskAt(machine, index);
+        int v = order.taskAt(machine, index + 1);
+        int before = index > 0 ? order.taskAt(machine, index - 1) : -1;
+        int after = index + 2 < numJobs ? order.taskAt(machine, index + 2) : -1;
+
+        // v now starts right after the predecessor of u on the machine, and u right after v
+        int headV = Math.max(headFrom(jobPredecessor(v)), headFrom(before));
+        int headU = Math.max(headFrom(jobPredecessor(u)), headV + durations[v]);
+        int tailU = Math.max(tailFrom(jobSuccessor(u)), tailFrom(after));
+        int tailV = Math.max(tailFrom(jobSuccessor(v)), tailU + durations[u]);
+
+        return Math.max(headV + durations[v] + tailV, headU + durations[u] + tailU);
+    }
+
+    /**
+     * Returns true if swapping the tasks u and v at index and index+1 in the sequence of the given machine
+     * cannot create a cycle. Such a cycle exists if and only if v is reachable from the job successor of u,
+     * in which case v cannot start before the end of that job successor.
+     * Adjacent tasks of a critical path can always be swapped.
+     */
+    public boolean isSwapFeasible(int machine, int index) {
+        int u = order.taskAt(machine, index);
+        int v = order.taskAt(machine, index + 1);
+        int jobSuccessor = jobSuccessor(u);
+        return jobSuccessor < 0 || heads[jobSuccessor] + durations[jobSuccessor] > heads[v];
+    }
+
+    /**
+     * Swaps the tasks at index and index+1 in the sequence of the given machine and updates heads and tails,
+     * only recomputing them for the tasks whose longest paths go through the swapped tasks.
+     * @return the exact makespan of the new solution
+     */
+    public int swap(int machine, int index) {
+        hash = hashAfterSwap(machine, index);
+        order.swap(machine, index, index + 1);
+        int first = order.taskAt(machine, index);
+        int second = order.taskAt(machine, index + 1);
+
+        // heads may only change for tasks reachable from the new first task (which includes the second one),
+        // tails may only change for tasks from which the new second task is reachable
+        updateHeads(first);
+        updateTails(second);
+
+        makespan = 0;
+        for(int j = 0; j < numJobs; j++) {
+            int last = j * numTasks + numTasks - 1;
+            makespan = Math.max(makespan, heads[last] + durations[last]);
+        }
+        return makespan;
+    }
+
+    private void nextMark() {
+        if(currentMark == Integer.MAX_VALUE) {
+            Arrays.fill(marks, 0);
+            currentMark = 0;
+        }
+        currentMark++;
+    }
+
+    /** Adds the given task to the cone if needed and counts one more incoming arc from the cone. */
+    private int visit(int x, int coneSize) {
+        if(marks[x] != currentMark) {
+            marks[x] = currentMark;
+            inDegree[x] = 0;
+            cone[coneSize++] = x;
+        }
+        inDegree[x]++;
+        return coneSize;
+    }
+
+    /** Recomputes the heads of all tasks reachable from root, in topological order of this cone. */
+    private void updateHeads(int root) {
+        nextMark();
+        marks[root] = currentMark;
+        inDegree[root] = 0;
+        cone[0] = root;
+        int coneSize = 1;
+        for(int k = 0; k < coneSize; k++) {
+            int x = cone[k];
+            int jobSuccessor = jobSuccessor(x);
+            if(jobSuccessor >= 0) {
+                coneSize = visit(jobSuccessor, coneSize);
+            }
+            int machineSuccessor = machineSuccessor(x);
+            if(machineSuccessor >= 0) {
+                coneSize = visit(machineSuccessor, coneSize);
+            }
+        }
+
+        int queueHead = 0;
+        int queueTail = 0;
+        queue[queueTail++] = root;
+        while(queueHead < queueTail) {
+            int x = queue[queueHead++];
+            heads[x] = Math.max(headFrom(jobPredecessor(x)), headFrom(machinePredecessor(x)));
+            int jobSuccessor = jobSuccessor(x);
+            if(jobSuccessor >= 0 && --inDegree[jobSuccessor] == 0) {
+                queue[queueTail++] = jobSuccessor;
+            }
+            int machineSuccessor = machineSuccessor(x);
+            if(machineSuccessor >= 0 && --inDegree[machineSuccessor] == 0) {
+                queue[queueTail++] = machineSuccessor;
+            }
+        }
+    }
+
+    /** Recomputes the tails of all tasks from which root is reachable, in reverse topological order of this cone. */
+    private void updateTails(int root) {
+        nextMark();
+        marks[root] = currentMark;
+        inDegree[root] = 0;
+        cone[0] = root;
+        int coneSize = 1;
+        for(int k = 0; k < coneSize; k++) {
+            int x = cone[k];
+            int jobPredecessor = jobPredecessor(x);
+            if(jobPredecessor >= 0) {
+                coneSize = visit(jobPredecessor, coneSize);
+            }
+            int machinePredecessor = machinePredecessor(x);
+            if(machinePredecessor >= 0) {
+                coneSize = visit(machinePredecessor, coneSize);
+            }
+        }
+
+        int queueHead = 0;
+        int queueTail = 0;
+        queue[queueTail++] = root;
+        while(queueHead < queueTail) {
+            int x = queue[queueHead++];
+            tails[x] = Math.max(tailFrom(jobSuccessor(x)), tailFrom(machineSuccessor(x)));
+            int jobPredecessor = jobPredecessor(x);
+            if(jobPredecessor >= 0 && --inDegree[jobPredecessor] == 0) {
+                queue[queueTail++] = jobPredecessor;
+            }
+            int machinePredecessor = machinePredecessor(x);
+            if(machinePredecessor >= 0 && --inDegree[machinePredecessor] == 0) {
+                queue[queueTail++] = machinePredecessor;
+            }
+        }
+    }
+
+    /**
+     * Writes a critical path of the current solution in the given buffer (one element per task at least),
+     * from its first task to its last one.
+     *
+     * Like Schedule.criticalPath(), the path is built backwards from the first job finishing last,
+     * preferring the job predecessor over the machine predecessor when both are delaying the current task.
+     * @return the number of tasks of the path
+     */
+    public int criticalPath(int[] path) {
+        int last = -1;
+        for(int j = 0; j < numJobs; j++) {
+            int x = j * numTasks + numTasks - 1;
+            if(heads[x] + durations[x] == makespan) {
+                last = x;
+                break;
+            }
+        }
+
+        int length = 0;
+        int current = last;
+        path[length++] = current;
+        while(heads[current] != 0) {
+            int predecessor = jobPredecessor(current);
+            if(predecessor < 0 || heads[predecessor] + durations[predecessor] != heads[current]) {
+                predecessor = machinePredecessor(current);
+            }
+            assert predecessor >= 0 && heads[predecessor] + durations[predecessor] == heads[current];
+            current = predecessor;
+            path[length++] = current;
+        }
+
+        for(int i = 0, k = length - 1; i < k; i++, k--) {
+            int tmp = path[i];
+            path[i] = path[k];
+            path[k] = tmp;
+        }
+        return length;
+    }
+
+    /**
+     * Computes a critical path of the current solution in the reusable buffer {@link #path}.
+     * @return the number of tasks of the path
+     */
+    int criticalPath() {
+        return criticalPath(path);
+    }
+
+    /**
+     * Computes the blocks of a critical path of the current solution in the reusable buffer {@link #blocks}, as triples
+     * (machine, index of the first task, index of the last task) like Schedule.criticalBlocks.
+     * @return the number of blocks
+     */
+    int criticalBlocks() {
+        int length = criticalPath();
+        int count = 0;
+        int first = 0;
+        for(int i = 1; i <= length; i++) {
+            if(i == length || machines[path[i]] != machines[path[first]]) {
+                if(i - first > 1) {
+                    int firstIndex = order.indexOf(path[first]);
+                    blocks[3 * count] = machines[path[first]];
+                    blocks[3 * count + 1] = firstIndex;
+                    blocks[3 * count + 2] = firstIndex + i - first - 1;
+                    count++;
+                }
+                first = i;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Computes the swaps of the Nowicki and Smutnicki neighborhood of the current solution in the reusable buffer
+     * {@link #moves} : the swap of the two tasks of a block of two tasks, and otherwise the swaps of its first two
+     * and of its last two tasks, block after block.
+     * @return the number of swaps
+     */
+    int criticalMoves() {
+        int numBlocks = criticalBlocks();
+        int count = 0;
+        for(int b = 0; b < numBlocks; b++) {
+            int machine = blocks[3 * b];
+            int firstIndex = blocks[3 * b + 1];
+            int lastIndex = blocks[3 * b + 2];
+            moves[2 * count] = machine;
+            moves[2 * count + 1] = firstIndex;
+            count++;
+            if(lastIndex - firstIndex > 1) {
+                moves[2 * count] = machine;
+                moves[2 * count + 1] = lastIndex - 1;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /** Returns the schedule corresponding to the current solution, where every task starts at its head. */
+    public Schedule toSchedule() {
+        int[][] times = new int[numJobs][];
+        for(int j = 0; j < numJobs; j++) {
+            times[j] = Arrays.copyOfRange(heads, j * numTasks, (j + 1) * numTasks);
+        }
+        return new Schedule(instance, times);
+    }
+}
@@ -0,0 +1,65 @@
+package jobshop.solvers;
+
+/**
+ * Bounded cache of the makespans of solutions, keyed by their Zobrist hash (see IncrementalEvaluator.hash()).
+ *
+ * Open addressing with linear probing over at most MAX_PROBES slots : when they are all taken, the entry of the first
+ * one is replaced, so the cache never grows and recent solutions are kept. Hashes are trusted as solution identities,
+ * the probability of a collision between two solutions being 2^-64.
+ * A cache is only used by one thread at a time.
+ */
+final class MakespanCache {
+
+    /** Value returned for unknown solutions */
+    static final int UNKNOWN = -1;
+
+    /** Default number of entries of a cache, about 768 KB */
+    static final int DEFAULT_CAPACITY = 1 << 16;
+
+    static final int MAX_PROBES = 8;
+
+    /** Hashes of the entries, 0 for an empty slot (hash 0 is stored as 1) */
+    private final long[] keys;
+    private final int[] makespans;
+    private final int mask;
+
+    /** @param capacity number of entries, rounded up to a power of 2 */
+    MakespanCache(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, MAX_PROBES) - 1) << 1;
+        keys = new long[size];
+        makespans = new int[size];
+        mask = size - 1;
+    }
+
+    /** Returns the makespan of the solution of the given hash, UNKNOWN if it is not in the cache. */
+    int get(long hash) {
+        long key = hash == 0 ? 1 : hash;
+        // the hash is already a mix of random keys, its low bits are used as the index
+        int index = (int) key & mask;
+        for(int probe = 0; probe < MAX_PROBES; probe++) {
+            long stored = keys[(index + probe) & mask];
+            if(stored == key) {
+                return makespans[(index + probe) & mask];
+            }
+            if(stored == 0) {
+                return UNKNOWN;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    void put(long hash, int makespan) {
+        long key = hash == 0 ? 1 : hash;
+        int index = (int) key & mask;
+        int slot = index;
+        for(int probe = 0; probe < MAX_PROBES; probe++) {
+            long stored = keys[(index + probe) & mask];
+            if(stored == key || stored == 0) {
+                slot = (index + probe) & mask;
+                break;
+            }
+        }
+        keys[slot] = key;
+        makespans[slot] = makespan;
+    }
+}
@@ -0,0 +1,130 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Solver;
+import jobshop.SolverMetrics;
+import jobshop.encodings.CompactResourceOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs descents from many starting solutions in parallel until the deadline and returns the best local optimum.
+ *
+ * The starts are numbered : the first eight are the solutions of the eight GreedySolver priority rules,
+ * the following ones are randomized greedy solutions (see GraspSolver) whose random generator is seeded with seed + start number,
+ * so that the set of explored starts only depends on the seed and on the number of starts done before the deadline.
+ */
+public class MultiStartDescentSolver implements Solver {
+
+    /** Solution of the given makespan found by a worker, replaced atomically when a better one is found. */
+    static final class BestSolution {
+        final int makespan;
+        final CompactResourceOrder order;
+
+        BestSolution(int makespan, CompactResourceOrder order) {
+            this.makespan = makespan;
+            this.order = order;
+        }
+    }
+
+    /** Size of the restricted candidate list of the randomized starts, see GraspSolver */
+    static final double RANDOMIZED_START_ALPHA = 0.5;
+
+    int parallelism;
+    long seed;
+
+    /**
+     * @param parallelism number of descents running at the same time
+     * @param seed seed of the randomized starts
+     */
+    public MultiStartDescentSolver(int parallelism, long seed) {
+        this.parallelism = parallelism;
+        this.seed = seed;
+    }
+
+    /** Uses all available processors. */
+    public MultiStartDescentSolver() {
+        this(Runtime.getRuntime().availableProcessors(), 0);
+    }
+
+    @Override
+    public int parallelism() {
+        return parallelism;
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline) {
+        return solve(instance, deadline, SolverMetrics.NONE);
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline, SolverMetrics metrics) {
+        AtomicReference<BestSolution> best = new AtomicReference<>(null);
+        AtomicInteger nextStart = new AtomicInteger(0);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<?>> workers = new ArrayList<>(parallelism);
+            for(int w = 0; w < parallelism; w++) {
+                workers.add(pool.submit(() -> {
+                    // descents from different starts often meet the same solutions
+                    MakespanCache cache = new MakespanCache(MakespanCache.DEFAULT_CAPACITY);
+                    while(System.currentTimeMillis() < deadline) {
+                        IncrementalEvaluator evaluator = new IncrementalEvaluator(startingSolution(instance, nextStart.getAndIncrement(), seed));
+                        metrics.decodes(1);
+                        DescentSolver.descent(evaluator, deadline, metrics, cache);
+                        publish(best, evaluator);
+                    }
+                }));
+            }
+            for(ForkJoinTask<?> worker : workers) {
+                worker.join();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        if(best.get() == null) {
+            // the deadline was reached before any start could be built
+            publish(best, new IncrementalEvaluator(startingSolution(instance, 0, seed)));
+        }
+        return new Result(instance, best.get().order.toSchedule(), Result.ExitCause.Timeout);
+    }
+
+    /** Replaces the best solution by the evaluated one if it is better. */
+    static void publish(AtomicReference<BestSolution> best, IncrementalEvaluator evaluator) {
+        BestSolution current = best.get();
+        if(current != null && current.makespan <= evaluator.makespan()) {
+            return;
+        }
+        BestSolution candidate = new BestSolution(evaluator.makespan(), evaluator.order.copy());
+        while(!best.compareAndSet(current, candidate)) {
+            current = best.get();
+            if(current != null && current.makespan <= candidate.makespan) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Builds the starting solution of the given number : one of the eight greedy solutions for the first eight numbers,
+     * a randomized greedy one seeded with seed + start otherwise, the rule being chosen by start % 8.
+     */
+    static CompactResourceOrder startingSolution(Instance instance, int start, long seed) {
+        if(start < 8) {
+            GreedySolver greedy = new GreedySolver((start & 4) != 0, (start & 2) != 0, (start & 1) != 0);
+            return new CompactResourceOrder(greedy.solve(instance, -1).schedule);
+        }
+
+        CompactResourceOrder order = new CompactResourceOrder(instance);
+        new GraspSolver.Construction(instance, RANDOMIZED_START_ALPHA).build(order, start % 8, new Random(seed + start));
+        return order;
+    }
+}
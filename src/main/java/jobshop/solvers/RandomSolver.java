@@ -3,33 +3,127 @@ package jobshop.solvers;
 import jobshop.*;
 import jobshop.encodings.JobNumbers;
 
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
+/**
+ * Samples random job sequences until the deadline and returns the best one.
+ *
+ * Samples are only evaluated by their makespan, in buffers reused from one sample to the next,
+ * and the deadline is only checked between batches of samples.
+ * With several threads, each one samples with its own random generator seeded with seed + thread number.
+ */
 public class RandomSolver implements Solver {
 
+    /** Best sample of one thread */
+    private static final class Sampler {
+        final JobNumbers best;
+        int bestMakespan;
+
+        Sampler(JobNumbers best, int bestMakespan) {
+            this.best = best;
+            this.bestMakespan = bestMakespan;
+        }
+    }
+
+    int parallelism;
+    long seed;
+    int batchSize;
+
+    /** Samples on a single thread, with seed 0. */
+    public RandomSolver() {
+        this(1, 0, 64);
+    }
+
+    /**
+     * @param parallelism number of threads sampling solutions
+     * @param seed seed of the random generators of the threads
+     * @param batchSize number of samples evaluated between two checks of the deadline
+     */
+    public RandomSolver(int parallelism, long seed, int batchSize) {
+        this.parallelism = parallelism;
+        this.seed = seed;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public int parallelism() {
+        return parallelism;
+    }
+
     @Override
     public Result solve(Instance instance, long deadline) {
-        Random generator = new Random(0);
+        return solve(instance, deadline, SolverMetrics.NONE);
+    }
 
-        JobNumbers sol = new JobNumbers(instance);
+    /** Every batch is an iteration of the metrics, every sample a decode. */
+    @Override
+    public Result solve(Instance instance, long deadline, SolverMetrics metrics) {
+        List<Sampler> samplers = new ArrayList<>(parallelism);
+        if(parallelism == 1) {
+            samplers.add(sample(instance, deadline, new Random(seed), metrics));
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                List<ForkJoinTask<Sampler>> workers = new ArrayList<>(parallelism);
+                for(int w = 0; w < parallelism; w++) {
+                    Random random = new Random(seed + w);
+                    workers.add(pool.submit(() -> sample(instance, deadline, random, metrics)));
+                }
+                for(ForkJoinTask<Sampler> worker : workers) {
+                    samplers.add(worker.join());
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
 
+        // the first thread wins ties, so that the result only depends on the samples of each thread
+        Sampler best = samplers.get(0);
+        for(Sampler sampler : samplers) {
+            if(sampler.bestMakespan < best.bestMakespan) {
+                best = sampler;
+            }
+        }
+        return new Result(instance, best.best.toSchedule(), Result.ExitCause.Timeout);
+    }
+
+    /** Sampling loop of one thread, until the deadline. */
+    private Sampler sample(Instance instance, long deadline, Random generator, SolverMetrics metrics) {
+        JobNumbers sol = new JobNumbers(instance);
         for(int j = 0 ; j<instance.numJobs ; j++) {
             for(int t = 0 ; t<instance.numTasks ; t++) {
                 sol.jobs[sol.nextToSet++] = j;
             }
         }
-        Schedule best = sol.toSchedule();
+
+        int[] nextTask = new int[instance.numJobs];
+        int[] jobEnd = new int[instance.numJobs];
+        int[] machineEnd = new int[instance.numMachines];
+
+        JobNumbers best = new JobNumbers(instance);
+        System.arraycopy(sol.jobs, 0, best.jobs, 0, sol.jobs.length);
+        best.nextToSet = sol.nextToSet;
+        Sampler sampler = new Sampler(best, sol.makespan(nextTask, jobEnd, machineEnd));
+        metrics.improvement(sampler.bestMakespan);
+
         while(deadline - System.currentTimeMillis() > 1) {
-            shuffleArray(sol.jobs, generator);
-            Schedule s = sol.toSchedule();
-            if(s.makespan() < best.makespan()) {
-                best = s;
+            for(int i = 0; i < batchSize; i++) {
+                shuffleArray(sol.jobs, generator);
+                int makespan = sol.makespan(nextTask, jobEnd, machineEnd);
+                if(makespan < sampler.bestMakespan) {
+                    sampler.bestMakespan = makespan;
+                    System.arraycopy(sol.jobs, 0, best.jobs, 0, sol.jobs.length);
+                    metrics.improvement(makespan);
+                }
             }
+            metrics.iteration();
+            metrics.decodes(batchSize);
         }
-
-
-        return new Result(instance, best, Result.ExitCause.Timeout);
+        return sampler;
     }
 
     /** Simple Fisher–Yates array shuffling */
@@ -48,5 +142,3 @@ public class RandomSolver implements Solver {
         }
     }
 }
-
-
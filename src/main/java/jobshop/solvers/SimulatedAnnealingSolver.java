@@ -0,0 +1,155 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Solver;
+import jobshop.SolverMetrics;
+import jobshop.encodings.CompactResourceOrder;
+
+import java.util.Random;
+
+/**
+ * Simulated annealing on resource orders, starting from the EST-LRPT greedy solution.
+ *
+ * A move swaps two adjacent tasks of a machine : either a swap of the Nowicki and Smutnicki neighborhood
+ * (see IncrementalEvaluator.criticalMoves) or, with probability 1 - criticalMoveProbability, a random swap that cannot create a cycle.
+ * A move increasing the makespan by delta is accepted with probability exp(-delta / temperature).
+ *
+ * The acceptance test draws the largest acceptable delta before evaluating the move : as the makespan estimate of a
+ * swap is a lower bound of its makespan, most rejected moves are rejected in O(1) without being applied.
+ * Accepted candidates are applied with the incremental update of IncrementalEvaluator, and reverted if their exact
+ * makespan is finally not acceptable.
+ *
+ * The temperature decreases exponentially with the elapsed fraction of the time budget, from a temperature accepting
+ * the average worsening move with probability initialAcceptance to one accepting it with probability finalAcceptance.
+ */
+public class SimulatedAnnealingSolver implements Solver {
+
+    /** Number of moves between two checks of the deadline and updates of the temperature, a power of 2 */
+    static final int CHECK_PERIOD = 256;
+
+    /** Number of random moves sampled to compute the average worsening move */
+    static final int SAMPLES = 100;
+
+    double initialAcceptance;
+    double finalAcceptance;
+    double criticalMoveProbability;
+    long seed;
+
+    /**
+     * @param initialAcceptance probability of accepting the average worsening move at the beginning
+     * @param finalAcceptance probability of accepting the average worsening move at the deadline
+     * @param criticalMoveProbability probability that a move is chosen in the neighborhood of the critical path
+     * @param seed seed of the random generator
+     */
+    public SimulatedAnnealingSolver(double initialAcceptance, double finalAcceptance, double criticalMoveProbability, long seed) {
+        this.initialAcceptance = initialAcceptance;
+        this.finalAcceptance = finalAcceptance;
+        this.criticalMoveProbability = criticalMoveProbability;
+        this.seed = seed;
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline) {
+        return solve(instance, deadline, SolverMetrics.NONE);
+    }
+
+    /** Every move drawn is an iteration of the metrics, every estimated move a neighbor and every applied move a decode. */
+    @Override
+    public Result solve(Instance instance, long deadline, SolverMetrics metrics) {
+        Random random = new Random(seed);
+        Solver solver = new GreedySolver(true, true, false);
+        IncrementalEvaluator current = new IncrementalEvaluator(new CompactResourceOrder(solver.solve(instance, -1).schedule));
+
+        CompactResourceOrder bestSolution = current.order.copy();
+        int bestMakespan = current.makespan();
+        metrics.improvement(bestMakespan);
+
+        double averageWorsening = averageWorsening(current, random);
+        double initialTemperature = -averageWorsening / Math.log(initialAcceptance);
+        double finalTemperature = -averageWorsening / Math.log(finalAcceptance);
+        double temperature = initialTemperature;
+
+        // moves of the critical path, only recomputed after an accepted move
+        int[] criticalMoves = current.moves;
+        int numCriticalMoves = current.criticalMoves();
+
+        long start = System.currentTimeMillis();
+        Result.ExitCause exitCause = Result.ExitCause.Timeout;
+        for(long moves = 0; ; moves++) {
+            if((moves & (CHECK_PERIOD - 1)) == 0) {
+                long now = System.currentTimeMillis();
+                if(now >= deadline) {
+                    break;
+                }
+                double elapsed = (double) (now - start) / (deadline - start);
+                temperature = initialTemperature * Math.pow(finalTemperature / initialTemperature, elapsed);
+            }
+
+            if(numCriticalMoves == 0) {
+                // the critical path is a single job : no solution can be shorter
+                exitCause = Result.ExitCause.ProvedOptimal;
+                break;
+            }
+
+            metrics.iteration();
+            int machine;
+            int index;
+            if(random.nextDouble() < criticalMoveProbability) {
+                int move = random.nextInt(numCriticalMoves);
+                machine = criticalMoves[2 * move];
+                index = criticalMoves[2 * move + 1];
+            } else {
+                machine = random.nextInt(instance.numMachines);
+                index = random.nextInt(instance.numJobs - 1);
+                if(!current.isSwapFeasible(machine, index)) {
+                    continue;
+                }
+            }
+
+            // the move is accepted if and only if it does not increase the makespan by more than this threshold
+            double threshold = -temperature * Math.log(1 - random.nextDouble());
+            int makespan = current.makespan();
+            metrics.neighbors(1);
+            if(current.estimate(machine, index) - makespan > threshold) {
+                continue;
+            }
+            metrics.decodes(1);
+            if(current.swap(machine, index) - makespan > threshold) {
+                // swapping the same tasks again restores the previous solution
+                current.swap(machine, index);
+                continue;
+            }
+
+            numCriticalMoves = current.criticalMoves();
+            if(current.makespan() < bestMakespan) {
+                bestSolution.copyFrom(current.order);
+                bestMakespan = current.makespan();
+                metrics.improvement(bestMakespan);
+            }
+        }
+
+        return new Result(instance, bestSolution.toSchedule(), exitCause);
+    }
+
+    /** Returns the average makespan increase of random swaps of the evaluated solution, among those increasing it. */
+    private static double averageWorsening(IncrementalEvaluator evaluator, Random random) {
+        Instance instance = evaluator.instance;
+        int makespan = evaluator.makespan();
+        long total = 0;
+        int count = 0;
+        for(int sample = 0; sample < SAMPLES && instance.numJobs > 1; sample++) {
+            int machine = random.nextInt(instance.numMachines);
+            int index = random.nextInt(instance.numJobs - 1);
+            if(evaluator.isSwapFeasible(machine, index)) {
+                int delta = evaluator.swap(machine, index) - makespan;
+                evaluator.swap(machine, index);
+                if(delta > 0) {
+                    total += delta;
+                    count++;
+                }
+            }
+        }
+        return count > 0 ? (double) total / count : 1;
+    }
+}
@@ -0,0 +1,42 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+
+/**
+ * Taboo memory of the swaps of adjacent tasks : for each ordered pair of tasks (u, v) executed on the same machine,
+ * the last iteration during which placing u right before v is taboo.
+ *
+ * Since every job has exactly one task on each machine, the tasks of a machine are identified by their job and the
+ * pairs are stored in one jobs x jobs table per machine, instead of a table for every pair of tasks :
+ * numMachines * numJobs^2 ints instead of (numJobs * numTasks)^2.
+ */
+final class TabooList {
+
+    private final Instance instance;
+    private final int numJobs;
+
+    /** Entry (machine * numJobs + job of u) * numJobs + job of v, implicitly filled with zeros */
+    private final int[] tabooUntil;
+
+    TabooList(Instance instance) {
+        this.instance = instance;
+        this.numJobs = instance.numJobs;
+        this.tabooUntil = new int[Math.multiplyExact(instance.numMachines, Math.multiplyExact(numJobs, numJobs))];
+    }
+
+    private int index(int first, int second) {
+        assert instance.machineOf(first) == instance.machineOf(second);
+        int machine = instance.machineOf(first);
+        return (machine * numJobs + first / instance.numTasks) * numJobs + second / instance.numTasks;
+    }
+
+    /** Returns true if placing the task first right before the task second is taboo at iteration k. */
+    boolean isTaboo(int first, int second, int k) {
+        return k < tabooUntil[index(first, second)];
+    }
+
+    /** Makes placing the task first right before the task second taboo until iteration until (excluded). */
+    void setTaboo(int first, int second, int until) {
+        tabooUntil[index(first, second)] = until;
+    }
+}
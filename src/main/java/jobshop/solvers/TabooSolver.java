@@ -1,12 +1,17 @@
 package jobshop.solvers;
 
 import jobshop.Instance;
+import jobshop.LowerBound;
 import jobshop.Result;
 import jobshop.Solver;
-import jobshop.encodings.ResourceOrder;
-import jobshop.encodings.Task;
+import jobshop.SolverMetrics;
+import jobshop.encodings.CompactResourceOrder;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 public class TabooSolver implements Solver {
 
@@ -15,6 +20,9 @@ public class TabooSolver implements Solver {
     boolean earliestStartTimeMode;
     boolean crescentOrder;
     boolean remainingProcessingTimeMode;
+    boolean exactEvaluation;
+    int parallelism;
+    int cacheCapacity;
 
     /**
      *
@@ -23,82 +31,264 @@ public class TabooSolver implements Solver {
      * @param crescentOrder Idem
      */
     public TabooSolver(int tabooDuration, int maxIter, boolean earliestStartTimeMode, boolean remainingProcessingTimeMode, boolean crescentOrder) {
+        this(tabooDuration, maxIter, earliestStartTimeMode, remainingProcessingTimeMode, crescentOrder, false, 1);
+    }
+
+    /**
+     *
+     * @param exactEvaluation if true then every neighbor is evaluated with its exact makespan instead of its estimate.
+     *                        Otherwise the move is chosen by estimate, but a taboo move is only allowed by aspiration
+     *                        if its exact makespan is better than the best solution, so the best makespan is always exact.
+     * @param parallelism number of threads evaluating the neighbors of an iteration. Whatever its value, the neighbors
+     *                    are compared in the same order, so the search follows exactly the same trajectory.
+     */
+    public TabooSolver(int tabooDuration, int maxIter, boolean earliestStartTimeMode, boolean remainingProcessingTimeMode, boolean crescentOrder,
+                       boolean exactEvaluation, int parallelism) {
+        this(tabooDuration, maxIter, earliestStartTimeMode, remainingProcessingTimeMode, crescentOrder, exactEvaluation, parallelism,
+                MakespanCache.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param cacheCapacity number of entries of the cache of the makespans of the solutions met by the search, 0 for no cache.
+     *                      With exact evaluation, neighbors found in the cache are not evaluated again. Otherwise taboo
+     *                      neighbors found in the cache are not applied to check their aspiration, and estimates are
+     *                      never replaced by cached makespans. The trajectory of the search does not depend on it.
+     */
+    public TabooSolver(int tabooDuration, int maxIter, boolean earliestStartTimeMode, boolean remainingProcessingTimeMode, boolean crescentOrder,
+                       boolean exactEvaluation, int parallelism, int cacheCapacity) {
         this.tabooDuration = tabooDuration;
         this.maxIter = maxIter;
         this.earliestStartTimeMode = earliestStartTimeMode;
         this.crescentOrder = crescentOrder;
         this.remainingProcessingTimeMode = remainingProcessingTimeMode;
+        this.exactEvaluation = exactEvaluation;
+        this.parallelism = parallelism;
+        this.cacheCapacity = cacheCapacity;
+    }
+
+    /** Returns true if swapping the tasks at index and index+1 on the given machine is taboo at iteration k. */
+    private static boolean isTaboo(TabooList tabooSolutions, int machine, int index, CompactResourceOrder solution, int k) {
+        return tabooSolutions.isTaboo(
+                solution.taskAt(machine, index),
+                solution.taskAt(machine, index + 1),
+                k);
+    }
+
+    /** Makes the reverse of the swap of the tasks at index and index+1 on the given machine taboo, before it is applied. */
+    private void setTaboo(TabooList tabooSolutions, int machine, int index, CompactResourceOrder solution, int k) {
+        tabooSolutions.setTaboo(
+                solution.taskAt(machine, index + 1),
+                solution.taskAt(machine, index),
+                tabooDuration + k);
+    }
+
+    /**
+     * Fills values[from..to) with the makespan (exact or estimated) of the corresponding moves of the current solution
+     * (see IncrementalEvaluator.criticalMoves).
+     * The current solution is only read, exact evaluations are done on the given scratch evaluator.
+     * Neighbors whose exact makespan is already known (values[i] != MakespanCache.UNKNOWN) are skipped.
+     */
+    private void evaluateNeighbors(IncrementalEvaluator current, int[] values, int from, int to, IncrementalEvaluator scratch) {
+        int[] moves = current.moves;
+        if(!exactEvaluation) {
+            for(int i = from; i < to; i++) {
+                values[i] = current.estimate(moves[2 * i], moves[2 * i + 1]);
+            }
+        } else {
+            scratch.copyFrom(current);
+            for(int i = from; i < to; i++) {
+                if(values[i] != MakespanCache.UNKNOWN) {
+                    continue;
+                }
+                values[i] = scratch.swap(moves[2 * i], moves[2 * i + 1]);
+                // swapping the same tasks again restores the current solution
+                scratch.swap(moves[2 * i], moves[2 * i + 1]);
+            }
+        }
+    }
+
+    /**
+     * Evaluates the first size moves, splitting them in one contiguous chunk per scratch evaluator when there are enough
+     * of them and a pool to evaluate them.
+     */
+    private void evaluateNeighbors(IncrementalEvaluator current, int size, int[] values, IncrementalEvaluator[] scratches,
+                                   ForkJoinPool pool) {
+        if(pool == null || size < 2 * parallelism) {
+            evaluateNeighbors(current, values, 0, size, scratches[0]);
+            return;
+        }
+
+        List<ForkJoinTask<?>> chunks = new ArrayList<>(parallelism - 1);
+        for(int c = 1; c < parallelism; c++) {
+            int from = c * size / parallelism;
+            int to = (c + 1) * size / parallelism;
+            IncrementalEvaluator scratch = scratches[c];
+            chunks.add(pool.submit(() -> evaluateNeighbors(current, values, from, to, scratch)));
+        }
+        // the first chunk is evaluated by the calling thread
+        evaluateNeighbors(current, values, 0, size / parallelism, scratches[0]);
+        for(ForkJoinTask<?> chunk : chunks) {
+            chunk.join();
+        }
+    }
+
+    /**
+     * Performs the k-th iteration of the taboo search : applies the best non taboo neighbor of the current solution,
+     * a taboo neighbor being allowed if it is better than the best solution (aspiration), and makes the reverse swap taboo.
+     * Without exact evaluation, the exact makespan of a taboo neighbor is computed before it is allowed by aspiration,
+     * its estimate being a lower bound that could let a taboo move through without improving the best solution.
+     * The neighbors, their values and their hashes are kept in the buffers of the current evaluator.
+     * @param scratches one scratch evaluator per thread, only used when neighbors are evaluated exactly
+     * @param pool pool of the threads evaluating the neighbors with the calling one, null to evaluate them sequentially
+     * @param cache makespans of the solutions already evaluated exactly, null if there is none
+     * @param metrics metrics counting the iteration, its neighbors and its decodes
+     * @return true if a swap was applied, false if all the neighbors are taboo
+     */
+    boolean iterate(IncrementalEvaluator current, TabooList tabooSolutions, int k, int bestMakespan, IncrementalEvaluator[] scratches,
+                    ForkJoinPool pool, MakespanCache cache, SolverMetrics metrics) {
+        int numNeighbors = current.criticalMoves();
+        int[] moves = current.moves;
+        int[] values = current.moveValues;
+        // the hashes of the neighbors are computed in O(1) without applying them
+        long[] hashes = current.moveHashes;
+        int evaluated = numNeighbors;
+        if(exactEvaluation) {
+            Arrays.fill(values, 0, numNeighbors, MakespanCache.UNKNOWN);
+            if(cache != null) {
+                for(int i = 0; i < numNeighbors; i++) {
+                    hashes[i] = current.hashAfterSwap(moves[2 * i], moves[2 * i + 1]);
+                    values[i] = cache.get(hashes[i]);
+                    if(values[i] != MakespanCache.UNKNOWN) {
+                        evaluated--;
+                    }
+                }
+            }
+        }
+        evaluateNeighbors(current, numNeighbors, values, scratches, pool);
+        if(exactEvaluation && cache != null) {
+            for(int i = 0; i < numNeighbors; i++) {
+                cache.put(hashes[i], values[i]);
+            }
+        }
+        metrics.iteration();
+        metrics.neighbors(numNeighbors);
+        if(exactEvaluation) {
+            metrics.decodes(evaluated);
+        }
+
+        // neighbors are compared in a fixed order, the first best one wins
+        int bestNeighbor = -1;
+        int bestNeighborValue = Integer.MAX_VALUE;
+        for (int i = 0; i < numNeighbors; i++) {
+            int machine = moves[2 * i];
+            int index = moves[2 * i + 1];
+            if (
+                    values[i] < bestNeighborValue &&
+                    (!isTaboo(tabooSolutions, machine, index, current.order, k) || aspires(current, machine, index, values[i], bestMakespan, cache, metrics))
+            ) {
+                bestNeighbor = i;
+                bestNeighborValue = values[i];
+            }
+        }
+
+        if(bestNeighbor == -1) {
+            return false;
+        }
+        int machine = moves[2 * bestNeighbor];
+        int index = moves[2 * bestNeighbor + 1];
+        setTaboo(tabooSolutions, machine, index, current.order, k);
+        current.swap(machine, index);
+        metrics.decodes(1);
+        if(cache != null) {
+            cache.put(current.hash(), current.makespan());
+        }
+        return true;
     }
 
-    private static boolean isTaboo(int[][] tabooSolutions, DescentSolver.Swap swap, ResourceOrder solution, int k) {
-        List<Task> tasks = swap.getTasksToSwap(solution);
-        return k <
-                tabooSolutions
-                        [tasks.get(0).job * solution.instance.numTasks + tasks.get(0).task]
-                        [tasks.get(1).job * solution.instance.numTasks + tasks.get(1).task];
+    /** Returns true if the given taboo neighbor of the given value is better than the best solution. */
+    private boolean aspires(IncrementalEvaluator current, int machine, int index, int value, int bestMakespan, MakespanCache cache,
+                            SolverMetrics metrics) {
+        if(value >= bestMakespan) {
+            return false;
+        }
+        if(exactEvaluation) {
+            return true;
+        }
+        int makespan = cache != null ? cache.get(current.hashAfterSwap(machine, index)) : MakespanCache.UNKNOWN;
+        if(makespan == MakespanCache.UNKNOWN) {
+            metrics.decodes(1);
+            makespan = current.swap(machine, index);
+            if(cache != null) {
+                cache.put(current.hash(), makespan);
+            }
+            // swapping the same tasks again restores the current solution
+            current.swap(machine, index);
+        }
+        return makespan < bestMakespan;
     }
 
-    private void setTaboo(int[][] tabooSolutions, DescentSolver.Swap swap, ResourceOrder solution, int k) {
-        List<Task> tasks = swap.getTasksToSwap(solution);
-        tabooSolutions
-                [tasks.get(1).job * solution.instance.numTasks + tasks.get(1).task]
-                [tasks.get(0).job * solution.instance.numTasks + tasks.get(0).task]
-                = tabooDuration + k;
+    @Override
+    public int parallelism() {
+        return parallelism;
     }
 
     @Override
     public Result solve(Instance instance, long deadline) {
+        return solve(instance, deadline, SolverMetrics.NONE);
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline, SolverMetrics metrics) {
         Solver solver = new GreedySolver(this.earliestStartTimeMode, this.remainingProcessingTimeMode, this.crescentOrder);
 
-        ResourceOrder bestSolution = new ResourceOrder(solver.solve(instance, -1).schedule);
-        int bestMakespan = bestSolution.toSchedule().makespan();
+        IncrementalEvaluator current = new IncrementalEvaluator(new CompactResourceOrder(solver.solve(instance, -1).schedule));
 
-        ResourceOrder currentSolution = bestSolution;
+        CompactResourceOrder bestSolution = current.order.copy();
+        int bestMakespan = current.makespan();
+        metrics.improvement(bestMakespan);
+
+        // one scratch evaluator per thread for the exact evaluation of neighbors
+        IncrementalEvaluator[] scratches = new IncrementalEvaluator[parallelism];
+        if(exactEvaluation) {
+            for(int c = 0; c < parallelism; c++) {
+                scratches[c] = new IncrementalEvaluator(current.order.copy());
+            }
+        }
 
-        //implicitly filled with zeros
-        int[][] tabooSolutions = new int[instance.numJobs * instance.numTasks][instance.numJobs * instance.numTasks];
+        MakespanCache cache = cacheCapacity > 0 ? new MakespanCache(cacheCapacity) : null;
+        if(cache != null) {
+            cache.put(current.hash(), current.makespan());
+        }
 
-        int k = 0;
+        TabooList tabooSolutions = new TabooList(instance);
 
-        while(k < maxIter && System.currentTimeMillis() < deadline) {
-            k++;
-
-            DescentSolver.Swap bestNeighborSwap = null;
-            ResourceOrder bestNeighborSolution = null;
-            int bestNeighborMakespan = Integer.MAX_VALUE;
-
-            List<DescentSolver.Block> blocks = DescentSolver.blocksOfCriticalPath(currentSolution);
-            for (DescentSolver.Block currentBlock : blocks) {
-                List<DescentSolver.Swap> blockNeighbors = DescentSolver.neighbors(currentBlock);
-                for (DescentSolver.Swap currentSwap : blockNeighbors) {
-                    ResourceOrder currentNeighborSolution = currentSolution.copy();
-                    currentSwap.applyOn(currentNeighborSolution);
-                    int currentNeighborMakespan = currentNeighborSolution.toSchedule().makespan();
-                    if (
-                            currentNeighborMakespan < bestNeighborMakespan &&
-                            (currentNeighborMakespan < bestMakespan || !isTaboo(tabooSolutions, currentSwap, currentSolution, k))
-                    ) {
-                        bestNeighborSwap = currentSwap;
-                        bestNeighborSolution = currentNeighborSolution;
-                        bestNeighborMakespan = currentNeighborMakespan;
-                    }
-                }
-            }
+        // the search stops as soon as the best solution is proved optimal
+        int lowerBound = LowerBound.of(instance);
 
-            if(bestNeighborSolution != null) {
-                setTaboo(tabooSolutions, bestNeighborSwap, currentSolution, k);
+        // the threads evaluating the neighbors only live during the solve
+        ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism - 1) : null;
+        int k = 0;
 
-                currentSolution = bestNeighborSolution;
+        try {
+            while(k < maxIter && bestMakespan > lowerBound && System.currentTimeMillis() < deadline) {
+                k++;
 
-                if (bestNeighborMakespan < bestMakespan) {
-                    bestSolution = bestNeighborSolution;
-                    bestMakespan = bestNeighborMakespan;
+                if(iterate(current, tabooSolutions, k, bestMakespan, scratches, pool, cache, metrics) && current.makespan() < bestMakespan) {
+                    bestSolution.copyFrom(current.order);
+                    bestMakespan = current.makespan();
+                    metrics.improvement(bestMakespan);
                 }
             }
+        } finally {
+            if(pool != null) {
+                pool.shutdown();
+            }
         }
 
         Result.ExitCause exitCause = Result.ExitCause.Blocked;
-        if(System.currentTimeMillis() >= deadline) {
+        if(bestMakespan == lowerBound) {
+            exitCause = Result.ExitCause.ProvedOptimal;
+        } else if(System.currentTimeMillis() >= deadline) {
             exitCause = Result.ExitCause.Timeout;
         }
         return new Result(instance, bestSolution.toSchedule(), exitCause);
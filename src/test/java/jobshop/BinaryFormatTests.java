@@ -0,0 +1,107 @@
+package jobshop;
+
+import jobshop.encodings.CompactResourceOrder;
+import jobshop.solvers.GreedySolver;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class BinaryFormatTests {
+
+    @Test
+    public void testRoundTrips() throws IOException {
+        for(String instanceName : new String[] {"aaa1", "ft10", "ta21", "swv11"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances/", instanceName));
+            Schedule schedule = new GreedySolver(true, true, false).solve(instance, -1).schedule;
+            CompactResourceOrder order = new CompactResourceOrder(schedule);
+
+            // records are streamed one after the other in the same buffer
+            ByteBuffer buffer = ByteBuffer.allocate(BinaryFormat.instanceSize(instance) + 2 * BinaryFormat.solutionSize(instance));
+            BinaryFormat.writeInstance(instance, buffer);
+            BinaryFormat.writeSchedule(schedule, buffer);
+            BinaryFormat.writeOrder(order, buffer);
+            assert !buffer.hasRemaining();
+            buffer.flip();
+
+            Instance read = BinaryFormat.readInstance(buffer);
+            assert read.equals(instance);
+            assert read.remainingProcessingTime(0, 0) == instance.remainingProcessingTime(0, 0);
+            Schedule readSchedule = BinaryFormat.readSchedule(read, buffer);
+            assert readSchedule.equals(new Schedule(read, schedule.times));
+            CompactResourceOrder readOrder = new CompactResourceOrder(read);
+            BinaryFormat.readOrder(buffer, readOrder);
+            assert java.util.Arrays.equals(readOrder.tasksOrderPerMachine, order.tasksOrderPerMachine);
+            assert java.util.Arrays.equals(readOrder.positions, order.positions);
+            assert !buffer.hasRemaining();
+        }
+    }
+
+    @Test
+    public void testLayout() {
+        Instance instance = new Instance(1, 2);
+        instance.machines[0] = new int[] {1, 0};
+        instance.durations[0] = new int[] {3, 258};
+        instance.buildIndex();
+        ByteBuffer buffer = ByteBuffer.allocate(BinaryFormat.instanceSize(instance));
+        BinaryFormat.writeInstance(instance, buffer);
+
+        byte[] expected = {'J', 'S', 'P', 'I', 1, 0, 0, 0, 1, 0, 0, 0, 2, 0, 0, 0,
+                1, 0, 0, 0, 3, 0, 0, 0, 0, 0, 0, 0, 2, 1, 0, 0};
+        assert java.util.Arrays.equals(buffer.array(), expected);
+
+        // other versions are rejected
+        buffer.order(ByteOrder.LITTLE_ENDIAN).putInt(4, BinaryFormat.VERSION + 1);
+        buffer.flip();
+        try {
+            BinaryFormat.readInstance(buffer);
+            assert false;
+        } catch (RuntimeException e) {
+            assert e.getMessage().contains("version");
+        }
+    }
+
+    @Test
+    public void testInvalidOrders() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/aaa1"));
+        CompactResourceOrder order = new CompactResourceOrder(new GreedySolver(true, true, false).solve(instance, -1).schedule);
+        ByteBuffer buffer = ByteBuffer.allocate(BinaryFormat.solutionSize(instance));
+        BinaryFormat.writeOrder(order, buffer);
+        int firstTask = BinaryFormat.HEADER_SIZE;
+
+        // the second task of machine 0 replaced by the first one
+        ByteBuffer duplicate = ByteBuffer.wrap(buffer.array().clone()).order(ByteOrder.LITTLE_ENDIAN);
+        duplicate.putInt(firstTask + Integer.BYTES, duplicate.getInt(firstTask));
+        // a task id out of range
+        ByteBuffer outOfRange = ByteBuffer.wrap(buffer.array().clone()).order(ByteOrder.LITTLE_ENDIAN);
+        outOfRange.putInt(firstTask, 6);
+
+        for(ByteBuffer invalid : new ByteBuffer[] {duplicate, outOfRange}) {
+            try {
+                BinaryFormat.readOrder(invalid, new CompactResourceOrder(instance));
+                assert false;
+            } catch (RuntimeException e) {
+                assert e.getMessage().contains("task id") || e.getMessage().contains("Task id");
+            }
+        }
+    }
+
+    @Test
+    public void testConverter() throws IOException {
+        Path directory = Files.createTempDirectory("instances");
+        try {
+            BinaryFormat.main(new String[] {"instances/ft06", directory.toString()});
+            Path converted = directory.resolve("ft06");
+            assert Files.size(converted) == BinaryFormat.instanceSize(Instance.fromFile(Paths.get("instances/ft06")));
+            // Instance.fromFile recognizes the binary format
+            assert Instance.fromFile(converted).equals(Instance.fromFile(Paths.get("instances/ft06")));
+        } finally {
+            Files.deleteIfExists(directory.resolve("ft06"));
+            Files.delete(directory);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package jobshop;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+public class InstanceRepositoryTests {
+
+    @Test
+    public void testCache() throws IOException {
+        InstanceRepository repository = new InstanceRepository(Paths.get("instances"));
+        Instance instance = repository.get("ft10");
+        assert instance.equals(Instance.fromFile(Paths.get("instances/ft10")));
+        Instance cached = repository.get("ft10");
+        assert cached == instance;
+        assert repository.misses() == 1 && repository.hits() == 1;
+        assert repository.bestKnown("ft10") == 930;
+
+        repository.preload(Arrays.asList("ft06", "ft10", "ft20", "la01"), 4);
+        assert repository.misses() == 4 && repository.hits() == 2;
+    }
+
+    @Test
+    public void testEviction() throws IOException {
+        // room for two instances of 10 jobs and 10 tasks
+        Instance ft10 = Instance.fromFile(Paths.get("instances/ft10"));
+        InstanceRepository repository = new InstanceRepository(Paths.get("instances"), 2 * InstanceRepository.footprint(ft10));
+
+        repository.get("ft10");
+        repository.get("orb01");
+        repository.get("ft10");
+        // orb01 is the least recently used
+        repository.get("orb02");
+        assert repository.evictions() == 1;
+        assert repository.size() == 2 * InstanceRepository.footprint(ft10);
+
+        long misses = repository.misses();
+        repository.get("ft10");
+        assert repository.misses() == misses;
+        repository.get("orb01");
+        assert repository.misses() == misses + 1;
+
+        // instances larger than the capacity are not cached
+        Instance ta71 = repository.get("ta71");
+        Instance again = repository.get("ta71");
+        assert ta71 != null && again != null;
+        assert repository.misses() == misses + 3;
+        assert repository.size() <= 2 * InstanceRepository.footprint(ft10);
+    }
+
+    @Test
+    public void testPreloadFailure() {
+        InstanceRepository repository = new InstanceRepository(Paths.get("instances"));
+        try {
+            repository.preload(Arrays.asList("ft06", "missing"), 2);
+            assert false;
+        } catch (IOException e) {
+            assert e.getMessage().contains("missing");
+        }
+    }
+}
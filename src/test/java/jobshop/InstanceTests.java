@@ -0,0 +1,92 @@
+package jobshop;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class InstanceTests {
+
+    @Test
+    public void testDerivedTables() throws IOException {
+        for(String instanceName : new String[] {"aaa1", "ft10", "ta21", "swv11"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances/", instanceName));
+
+            for(int j = 0; j < instance.numJobs; j++) {
+                int remainingProcessingTime = 0;
+                for(int t = instance.numTasks - 1; t >= 0; t--) {
+                    int id = instance.taskId(j, t);
+                    assert instance.durationOf(id) == instance.duration(j, t);
+                    assert instance.machineOf(id) == instance.machine(j, t);
+                    assert instance.task_with_machine(j, instance.machine(j, t)) == t;
+
+                    remainingProcessingTime += instance.duration(j, t);
+                    assert instance.remainingProcessingTime(j, t) == remainingProcessingTime;
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testParserMatchesScanner() throws IOException {
+        try(DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get("instances"))) {
+            for(Path file : files) {
+                if(!file.toString().endsWith(".md")) {
+                    assert Instance.fromFile(file).equals(parseWithScanner(file)) : file;
+                }
+            }
+        }
+
+        // a large generated instance is memory mapped, and is written with comments and Windows line endings
+        Random random = new Random(0);
+        int numJobs = 1000;
+        int numTasks = 100;
+        StringBuilder text = new StringBuilder("# generated\r\n" + numJobs + " " + numTasks + "\r\n");
+        for(int j = 0; j < numJobs; j++) {
+            if(j % 100 == 0) {
+                text.append("# jobs ").append(j).append("\r\n");
+            }
+            List<Integer> machines = new ArrayList<>();
+            for(int m = 0; m < numTasks; m++) {
+                machines.add(m);
+            }
+            Collections.shuffle(machines, random);
+            for(int t = 0; t < numTasks; t++) {
+                text.append(machines.get(t)).append(t == 0 ? " " : "\t").append(1 + random.nextInt(99)).append("  ");
+            }
+            text.append("\r\n");
+        }
+        Path file = Files.createTempFile("instance", "");
+        try {
+            Files.write(file, text.toString().getBytes());
+            assert Files.size(file) > Instance.MAPPING_THRESHOLD;
+            Instance instance = Instance.fromFile(file);
+            assert instance.numJobs == numJobs && instance.numTasks == numTasks;
+            assert instance.equals(parseWithScanner(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /** Reference parser, reading the lines of the file with a Scanner per line */
+    private static Instance parseWithScanner(Path path) throws IOException {
+        Iterator<String> lines = Files.readAllLines(path).stream()
+                .filter(l -> !l.startsWith("#"))
+                .collect(Collectors.toList())
+                .iterator();
+
+        Scanner header = new Scanner(lines.next());
+        Instance instance = new Instance(header.nextInt(), header.nextInt());
+        for(int job = 0 ; job < instance.numJobs ; job++) {
+            Scanner line = new Scanner(lines.next());
+            for(int task = 0 ; task < instance.numTasks ; task++) {
+                instance.machines[job][task] = line.nextInt();
+                instance.durations[job][task] = line.nextInt();
+            }
+        }
+        instance.buildIndex();
+        return instance;
+    }
+}
@@ -0,0 +1,44 @@
+package jobshop;
+
+import jobshop.solvers.BranchAndBoundSolver;
+import jobshop.solvers.TabooSolver;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+public class LowerBoundTests {
+
+    @Test
+    public void testBounds() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/aaa1"));
+        /*
+                    Task 1  Task 2  Task 3
+            Job 1   M1 D3   M2 D3   M3 D2
+            Job 2   M2 D2   M1 D2   M3 D4
+
+            On M3, task (2,3) is released at 4 and task (1,3) at 6 : both end at 10 at best.
+         */
+        assert LowerBound.maxJobLength(instance) == 8;
+        assert LowerBound.maxMachineLoad(instance) == 6;
+        assert LowerBound.jacksonPreemptive(instance) == 10;
+        assert LowerBound.of(instance) == 10;
+
+        // bounds never exceed the optimal makespan, found here by the branch and bound
+        for(String instanceName : new String[] {"ft06", "la01", "la06", "la11"}) {
+            instance = Instance.fromFile(Paths.get("instances/", instanceName));
+            Result optimal = new BranchAndBoundSolver(100, 2).solve(instance, System.currentTimeMillis() + 10000);
+            assert optimal.cause == Result.ExitCause.ProvedOptimal;
+            assert LowerBound.of(instance) <= optimal.schedule.makespan();
+        }
+    }
+
+    @Test
+    public void testTabooStopsAtLowerBound() throws IOException {
+        // the optimal makespan of la11 is the load of its busiest machine
+        Instance instance = Instance.fromFile(Paths.get("instances/la11"));
+        Result result = new TabooSolver(30, Integer.MAX_VALUE, true, true, false).solve(instance, System.currentTimeMillis() + 10000);
+        assert result.cause == Result.ExitCause.ProvedOptimal;
+        assert result.schedule.makespan() == LowerBound.of(instance);
+    }
+}
@@ -0,0 +1,31 @@
+package jobshop;
+
+import jobshop.solvers.GreedySolver;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Paths;
+
+public class ResultsSinkTests {
+
+    @Test
+    public void testFormats() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/aaa1"));
+        Result result = new GreedySolver(true, true, false).solve(instance, -1);
+        int makespan = result.schedule.makespan();
+        String gap = String.format(java.util.Locale.ROOT, "%.2f", 100.0 * (makespan - 11) / 11);
+
+        StringWriter csv = new StringWriter();
+        new ResultsSink(csv, ResultsSink.Format.CSV).write("aaa1", "est-lrpt", result, 12, 3, 1024, SolverMetrics.NONE);
+        assert csv.toString().equals(
+                "instance,size,solver,makespan,gap,wall_ms,cpu_ms,iterations,neighbors,decodes,improvements,allocated_bytes,exit_cause\n" +
+                "aaa1,2x3,est-lrpt," + makespan + "," + gap + ",12,3,-1,-1,-1,-1,1024," + result.cause + "\n");
+
+        StringWriter json = new StringWriter();
+        new ResultsSink(json, ResultsSink.Format.JSON_LINES).write("aaa1", "est-lrpt", result, 12, 3, 1024, SolverMetrics.NONE);
+        assert json.toString().equals("{\"instance\": \"aaa1\", \"size\": \"2x3\", \"solver\": \"est-lrpt\", \"makespan\": " +
+                makespan + ", \"gap\": " + gap + ", \"wall_ms\": 12, \"cpu_ms\": 3, \"iterations\": -1, \"neighbors\": -1, " +
+                "\"decodes\": -1, \"improvements\": -1, \"allocated_bytes\": 1024, \"exit_cause\": \"" + result.cause + "\", \"trace\": []}\n");
+    }
+}
@@ -0,0 +1,83 @@
+package jobshop;
+
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.Task;
+import jobshop.solvers.GreedySolver;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+
+public class ScheduleTests {
+
+    @Test
+    public void testCriticalPathAndBlocks() throws IOException {
+        for(String instanceName : new String[] {"aaa1", "ft06", "la16", "ta01", "swv01"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances/", instanceName));
+            Schedule schedule = new GreedySolver(true, false, true).solve(instance, -1).schedule;
+            ResourceOrder order = new ResourceOrder(schedule);
+
+            int[] path = new int[instance.numJobs * instance.numTasks];
+            int length = schedule.criticalPath(path);
+            List<Task> criticalPath = schedule.criticalPath();
+            assert schedule.isCriticalPath(criticalPath);
+            assert criticalPath.size() == length;
+            for(int i = 0; i < length; i++) {
+                assert criticalPath.get(i).job * instance.numTasks + criticalPath.get(i).task == path[i];
+            }
+
+            int[] blocks = new int[3 * (length / 2)];
+            int count = schedule.criticalBlocks(path, length, blocks);
+            int tasksInBlocks = 0;
+            for(int b = 0; b < count; b++) {
+                int machine = blocks[3 * b];
+                for(int index = blocks[3 * b + 1]; index <= blocks[3 * b + 2]; index++) {
+                    Task task = order.tasksOrderPerMachine[machine].get(index);
+                    assert criticalPath.contains(task);
+                    tasksInBlocks++;
+                }
+            }
+            int expected = 0;
+            for(int i = 0; i < length; i++) {
+                boolean sameAsPrevious = i > 0 && instance.machine(criticalPath.get(i - 1)) == instance.machine(criticalPath.get(i));
+                boolean sameAsNext = i < length - 1 && instance.machine(criticalPath.get(i + 1)) == instance.machine(criticalPath.get(i));
+                if(sameAsPrevious || sameAsNext) {
+                    expected++;
+                }
+            }
+            assert tasksInBlocks == expected;
+        }
+    }
+
+    @Test
+    public void testValidatorMatchesNaive() throws IOException {
+        Random random = new Random(0);
+        for(String instanceName : new String[] {"aaa1", "ft06", "la16", "ta01", "swv01"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances/", instanceName));
+            Schedule schedule = new GreedySolver(true, false, true).solve(instance, -1).schedule;
+            assert schedule.isValid();
+            assert schedule.isValidNaive();
+            assert !schedule.firstViolatedConstraint().isPresent();
+
+            // moving a single task may or may not break a constraint, both validators must agree
+            for(int i = 0; i < 500; i++) {
+                int[][] times = new int[instance.numJobs][];
+                for(int j = 0; j < instance.numJobs; j++) {
+                    times[j] = schedule.times[j].clone();
+                }
+                int job = random.nextInt(instance.numJobs);
+                int task = random.nextInt(instance.numTasks);
+                times[job][task] += random.nextInt(21) - 10;
+                if(random.nextBoolean()) {
+                    times[job][task] += schedule.makespan();
+                }
+
+                Schedule corrupted = new Schedule(instance, times);
+                assert corrupted.isValid() == corrupted.isValidNaive();
+                assert corrupted.firstViolatedConstraint().isPresent() != corrupted.isValidNaive();
+            }
+        }
+    }
+}
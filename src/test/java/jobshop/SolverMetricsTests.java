@@ -0,0 +1,58 @@
+package jobshop;
+
+import jobshop.solvers.*;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+
+public class SolverMetricsTests {
+
+    @Test
+    public void testTrace() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        Solver[] solvers = {
+                new DescentSolver(true, true, false),
+                new TabooSolver(30, 1000, true, true, false),
+                new TabooSolver(30, 1000, true, true, false, true, 2),
+                new CooperativeTabooSolver(30, 1000, 10, 2, 0),
+                new MultiStartDescentSolver(2, 0),
+                new GraspSolver(0.3, 2, 0),
+                new RandomSolver(2, 0, 64),
+                new GeneticSolver(30, 0.2, false, false, 2, 0),
+                new SimulatedAnnealingSolver(0.5, 0.001, 0.8, 0),
+                new BranchAndBoundSolver(100, 2),
+        };
+        for(Solver solver : solvers) {
+            SolverMetrics metrics = new SolverMetrics();
+            Result result = solver.solve(instance, System.currentTimeMillis() + 200, metrics);
+
+            // the trace ends with the makespan of the returned solution, and only holds improvements
+            List<SolverMetrics.Improvement> trace = metrics.trace();
+            assert metrics.improvements() == trace.size();
+            assert trace.get(trace.size() - 1).makespan == result.schedule.makespan() : solver.getClass().getSimpleName();
+            for(int i = 1; i < trace.size(); i++) {
+                assert trace.get(i).makespan < trace.get(i - 1).makespan;
+                assert trace.get(i).time >= trace.get(i - 1).time;
+            }
+            assert metrics.iterations() + metrics.neighbors() + metrics.decodes() > 0 : solver.getClass().getSimpleName();
+        }
+    }
+
+    @Test
+    public void testTabooCounters() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        SolverMetrics metrics = new SolverMetrics();
+        new TabooSolver(30, 100, true, true, false).solve(instance, System.currentTimeMillis() + 10000, metrics);
+        assert metrics.iterations() == 100;
+        assert metrics.neighbors() >= metrics.iterations();
+        // one decode per applied move, and one per taboo neighbor checked for aspiration
+        assert metrics.decodes() <= metrics.iterations() + metrics.neighbors();
+
+        // disabled metrics record nothing
+        new TabooSolver(30, 100, true, true, false).solve(instance, System.currentTimeMillis() + 10000, SolverMetrics.NONE);
+        assert SolverMetrics.NONE.iterations() == 0;
+        assert SolverMetrics.NONE.trace().isEmpty();
+    }
+}
@@ -49,6 +49,7 @@ public class EncodingTests {
         assert schedAuto.equals(schedMan);
         assert schedMan.isValid();
         assert schedMan.makespan() == 12;
+        assert enc.makespan(new int[2], new int[2], new int[3]) == 12;
 
 
 
@@ -84,6 +85,7 @@ public class EncodingTests {
         assert schedAuto.equals(schedMan);
         assert schedMan.isValid();
         assert schedMan.makespan() == 14;
+        assert enc.makespan(new int[2], new int[2], new int[3]) == 14;
 
         JobNumbers enc2 = new JobNumbers(instance);
         enc2.fromSchedule(schedAuto);
@@ -154,6 +156,38 @@ public class EncodingTests {
 
     }
 
+    @Test
+    public void testCompactResourceOrder() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/aaa1"));
+
+        // same solution as in testResourceOrder
+        ResourceOrder order = new ResourceOrder(instance);
+        order.addTaskToResourceQueue(0, 0, 0);
+        order.addTaskToResourceQueue(0, 1, 1);
+        order.addTaskToResourceQueue(1, 0, 1);
+        order.addTaskToResourceQueue(1, 1, 0);
+        order.addTaskToResourceQueue(2, 2, 0);
+        order.addTaskToResourceQueue(2, 2, 1);
+
+        CompactResourceOrder enc = new CompactResourceOrder(order);
+        assert enc.taskAt(1, 0) == enc.taskId(1, 0);
+        assert enc.indexOf(enc.taskId(0, 1)) == 1;
+        assert enc.toSchedule().equals(order.toSchedule());
+        assert enc.toSchedule().makespan() == 12;
+        assert enc.toResourceOrder().equals(order);
+        assert new CompactResourceOrder(enc.toSchedule()).equals(enc);
+
+        // swapping the two tasks of machine 1 gives the second solution of the exercises
+        CompactResourceOrder swapped = enc.copy();
+        swapped.swap(1, 0, 1);
+        assert swapped.indexOf(swapped.taskId(0, 1)) == 0;
+        assert enc.indexOf(enc.taskId(0, 1)) == 1;
+        assert !swapped.equals(enc);
+        enc.copyFrom(swapped);
+        assert enc.equals(swapped);
+        assert enc.toSchedule().isValid();
+    }
+
     @Test
     public void testBasicSolver() throws IOException {
         Instance instance = Instance.fromFile(Paths.get("instances/aaa1"));
@@ -0,0 +1,24 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+public class BranchAndBoundSolverTests {
+
+    @Test
+    public void testProvesOptimality() throws IOException {
+        String[] instanceNames = {"aaa1", "ft06", "la01", "la05", "la10"};
+        int[] optima = {11, 55, 666, 593, 958};
+        for(int i = 0; i < instanceNames.length; i++) {
+            Instance instance = Instance.fromFile(Paths.get("instances/", instanceNames[i]));
+            Result result = new BranchAndBoundSolver(100, 2).solve(instance, System.currentTimeMillis() + 10000);
+            assert result.cause == Result.ExitCause.ProvedOptimal;
+            assert result.schedule.isValid();
+            assert result.schedule.makespan() == optima[i];
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+public class GeneticSolverTests {
+
+    /** Returns true if every job appears numTasks times in the sequence. */
+    private static boolean isPermutation(int[] sequence, Instance instance) {
+        int[] counts = new int[instance.numJobs];
+        for(int job : sequence) {
+            counts[job]++;
+        }
+        for(int count : counts) {
+            if(count != instance.numTasks) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    public void testCrossovers() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft06"));
+        int length = instance.numJobs * instance.numTasks;
+        GeneticSolver.Crossover crossover = new GeneticSolver.Crossover(instance);
+        Random random = new Random(0);
+
+        int[] parent1 = new int[length];
+        int[] parent2 = new int[length];
+        int[] child = new int[length];
+        for(int i = 0; i < length; i++) {
+            parent1[i] = i / instance.numTasks;
+            parent2[i] = i % instance.numJobs;
+        }
+
+        for(int step = 0; step < 100; step++) {
+            int from = random.nextInt(length);
+            int to = from + 1 + random.nextInt(length - from);
+            crossover.gox(parent1, parent2, from, to, child);
+            assert isPermutation(child, instance);
+            // the donor substring is implanted as is
+            boolean found = false;
+            for(int start = 0; start + to - from <= length && !found; start++) {
+                found = true;
+                for(int i = from; i < to; i++) {
+                    found &= child[start + i - from] == parent2[i];
+                }
+            }
+            assert found;
+
+            crossover.ppx(parent1, parent2, child, random);
+            assert isPermutation(child, instance);
+
+            // crossing a sequence with itself gives the same sequence
+            crossover.ppx(parent2, parent2, child, random);
+            assert Arrays.equals(child, parent2);
+        }
+    }
+
+    @Test
+    public void testSolve() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft06"));
+        for(boolean memetic : new boolean[] {false, true}) {
+            Result result = new GeneticSolver(20, 0.2, memetic, memetic, 2, 0).solve(instance, System.currentTimeMillis() + 200);
+            assert result.schedule.isValid();
+        }
+    }
+}
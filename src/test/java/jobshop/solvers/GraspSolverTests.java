@@ -0,0 +1,52 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Schedule;
+import jobshop.encodings.CompactResourceOrder;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Random;
+
+public class GraspSolverTests {
+
+    @Test
+    public void testConstruction() throws IOException {
+        for(String instanceName : new String[] {"aaa1", "ft06", "la16", "ta01"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances/", instanceName));
+            for(double alpha : new double[] {0, 0.5, 1}) {
+                GraspSolver.Construction construction = new GraspSolver.Construction(instance, alpha);
+                for(int rule = 0; rule < 8; rule++) {
+                    CompactResourceOrder order = new CompactResourceOrder(instance);
+                    construction.build(order, rule, new Random(rule));
+                    for(int id = 0; id < instance.numJobs * instance.numTasks; id++) {
+                        assert order.taskAt(instance.machineOf(id), order.indexOf(id)) == id;
+                    }
+                    Schedule schedule = order.toSchedule();
+                    assert schedule.isValid();
+
+                    // the same seed builds the same solution, whatever was built before
+                    CompactResourceOrder again = new CompactResourceOrder(instance);
+                    construction.build(again, rule, new Random(rule));
+                    assert again.equals(order);
+
+                    // tasks are dispatched in the order of their start times on each machine
+                    assert new CompactResourceOrder(schedule).equals(order);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEarliestStartTimeRulesUsePriorities() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        GraspSolver.Construction construction = new GraspSolver.Construction(instance, 0);
+        // longest and shortest processing time first, among the tasks of earliest start time
+        CompactResourceOrder longest = new CompactResourceOrder(instance);
+        construction.build(longest, 4, new Random(0));
+        CompactResourceOrder shortest = new CompactResourceOrder(instance);
+        construction.build(shortest, 5, new Random(0));
+        assert !longest.equals(shortest);
+    }
+}
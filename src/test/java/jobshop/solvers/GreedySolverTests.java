@@ -0,0 +1,104 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Schedule;
+import jobshop.encodings.CompactResourceOrder;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+public class GreedySolverTests {
+
+    /**
+     * Dispatch of the realizable tasks with a PriorityQueue of jobs, removing and adding again the jobs whose
+     * earliest start time changes, with the same keys as the heap of GreedySolver : earliest start time (only in
+     * earliest start time mode), then priority, then job number.
+     */
+    private static int[][] dispatch(Instance instance, boolean earliestStartTimeMode, boolean remainingProcessingTimeMode,
+                                    boolean crescentOrder) {
+        int[][] startTimes = new int[instance.numJobs][instance.numTasks];
+        int[] nextTask = new int[instance.numJobs];
+        int[] jobEnd = new int[instance.numJobs];
+        int[] machineEnd = new int[instance.numMachines];
+        int[] earliestStartTimes = new int[instance.numJobs];
+        int[] priorities = new int[instance.numJobs];
+
+        PriorityQueue<Integer> realizableTasks = new PriorityQueue<>((Integer job1, Integer job2) -> {
+            if(earliestStartTimeMode && earliestStartTimes[job1] != earliestStartTimes[job2]) {
+                return Integer.compare(earliestStartTimes[job1], earliestStartTimes[job2]);
+            }
+            if(priorities[job1] != priorities[job2]) {
+                return Integer.compare(priorities[job1], priorities[job2]);
+            }
+            return Integer.compare(job1, job2);
+        });
+
+        for(int j = 0; j < instance.numJobs; j++) {
+            priorities[j] = priority(instance, j, 0, remainingProcessingTimeMode, crescentOrder);
+            realizableTasks.add(j);
+        }
+        while(!realizableTasks.isEmpty()) {
+            int job = realizableTasks.poll();
+            int task = nextTask[job];
+            int machine = instance.machine(job, task);
+            startTimes[job][task] = Math.max(jobEnd[job], machineEnd[machine]);
+            jobEnd[job] = startTimes[job][task] + instance.duration(job, task);
+            machineEnd[machine] = jobEnd[job];
+
+            List<Integer> updated = new ArrayList<>();
+            for(int other : realizableTasks) {
+                if(instance.machine(other, nextTask[other]) == machine) {
+                    updated.add(other);
+                }
+            }
+            for(int other : updated) {
+                realizableTasks.remove(other);
+                earliestStartTimes[other] = Math.max(jobEnd[other], machineEnd[machine]);
+                realizableTasks.add(other);
+            }
+
+            if(++nextTask[job] < instance.numTasks) {
+                earliestStartTimes[job] = Math.max(jobEnd[job], machineEnd[instance.machine(job, nextTask[job])]);
+                priorities[job] = priority(instance, job, nextTask[job], remainingProcessingTimeMode, crescentOrder);
+                realizableTasks.add(job);
+            }
+        }
+        return startTimes;
+    }
+
+    private static int priority(Instance instance, int job, int task, boolean remainingProcessingTimeMode, boolean crescentOrder) {
+        int value = 0;
+        for(int t = task; t < (remainingProcessingTimeMode ? instance.numTasks : task + 1); t++) {
+            value += instance.duration(job, t);
+        }
+        return crescentOrder ? value : -value;
+    }
+
+    @Test
+    public void testRules() throws IOException {
+        for(String instanceName : new String[] {"aaa1", "ft06", "ft10", "la16", "ta01", "swv11"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances/", instanceName));
+            for(int rule = 0; rule < 8; rule++) {
+                boolean earliestStartTimeMode = (rule & 4) != 0;
+                boolean remainingProcessingTimeMode = (rule & 2) != 0;
+                boolean crescentOrder = (rule & 1) != 0;
+                Schedule schedule = new GreedySolver(earliestStartTimeMode, remainingProcessingTimeMode, crescentOrder)
+                        .solve(instance, -1).schedule;
+                assert schedule.isValid();
+
+                // the start times are those of the decoding of the dispatched resource order
+                Schedule decoded = new CompactResourceOrder(schedule).toSchedule();
+                assert decoded.equals(schedule);
+
+                // ties are broken the same way as with a priority queue ordered by job number
+                Schedule reference = new Schedule(instance,
+                        dispatch(instance, earliestStartTimeMode, remainingProcessingTimeMode, crescentOrder));
+                assert reference.equals(schedule);
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Schedule;
+import jobshop.encodings.CompactResourceOrder;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+public class IncrementalEvaluatorTests {
+
+    @Test
+    public void testSwapsMatchFullEvaluation() throws IOException {
+        for(String instanceName : new String[] {"ft06", "ft10", "la16", "ta01"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances/", instanceName));
+            CompactResourceOrder start = new CompactResourceOrder(new GreedySolver(false, true, false).solve(instance, -1).schedule);
+            IncrementalEvaluator evaluator = new IncrementalEvaluator(start);
+            Random random = new Random(0);
+
+            for(int step = 0; step < 200; step++) {
+                // the blocks of the evaluator are those of the schedule, for the same critical path
+                int numBlocks = evaluator.criticalBlocks();
+                Schedule schedule = evaluator.toSchedule();
+                int[] path = new int[instance.numJobs * instance.numTasks];
+                int[] blocks = new int[path.length];
+                assert schedule.criticalBlocks(path, schedule.criticalPath(path), blocks) == numBlocks;
+                assert Arrays.equals(Arrays.copyOf(blocks, 3 * numBlocks), Arrays.copyOf(evaluator.blocks, 3 * numBlocks));
+
+                int numMoves = evaluator.criticalMoves();
+                if(numMoves == 0) {
+                    break;
+                }
+                int move = random.nextInt(numMoves);
+                int machine = evaluator.moves[2 * move];
+                int index = evaluator.moves[2 * move + 1];
+
+                int estimate = evaluator.estimate(machine, index);
+                int makespan = evaluator.swap(machine, index);
+                // the estimate is a lower bound of the makespan of the neighbor
+                assert estimate <= makespan;
+
+                IncrementalEvaluator reference = new IncrementalEvaluator(evaluator.order.copy());
+                assert reference.makespan() == makespan;
+                for(int id = 0; id < instance.numJobs * instance.numTasks; id++) {
+                    assert reference.head(id) == evaluator.head(id);
+                    assert reference.tail(id) == evaluator.tail(id);
+                }
+                assert evaluator.toSchedule().equals(evaluator.order.toSchedule());
+                assert evaluator.toSchedule().isValid();
+                assert evaluator.toSchedule().makespan() == makespan;
+            }
+        }
+    }
+
+    @Test
+    public void testHashFollowsSwaps() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        IncrementalEvaluator evaluator = new IncrementalEvaluator(
+                new CompactResourceOrder(new GreedySolver(false, true, false).solve(instance, -1).schedule));
+        long start = evaluator.hash();
+        Random random = new Random(0);
+        MakespanCache cache = new MakespanCache(1024);
+        cache.put(evaluator.hash(), evaluator.makespan());
+
+        for(int step = 0; step < 500; step++) {
+            int machine = random.nextInt(instance.numMachines);
+            int index = random.nextInt(instance.numJobs - 1);
+            if(!evaluator.isSwapFeasible(machine, index)) {
+                continue;
+            }
+            long expected = evaluator.hashAfterSwap(machine, index);
+            int makespan = evaluator.swap(machine, index);
+            assert evaluator.hash() == expected;
+            assert evaluator.hash() == evaluator.order.zobristHash();
+
+            int known = cache.get(evaluator.hash());
+            assert known == MakespanCache.UNKNOWN || known == makespan;
+            cache.put(evaluator.hash(), makespan);
+            assert cache.get(evaluator.hash()) == makespan;
+
+            // swapping back restores the hash
+            evaluator.swap(machine, index);
+            assert evaluator.hashAfterSwap(machine, index) == expected;
+            evaluator.swap(machine, index);
+        }
+        assert evaluator.hash() != start;
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        MakespanCache cache = new MakespanCache(16);
+        Random random = new Random(0);
+        long[] hashes = new long[1000];
+        for(int i = 0; i < hashes.length; i++) {
+            hashes[i] = random.nextLong();
+            cache.put(hashes[i], i);
+        }
+        // most entries were replaced, the remaining ones keep their makespan
+        int found = 0;
+        for(int i = 0; i < hashes.length; i++) {
+            int makespan = cache.get(hashes[i]);
+            assert makespan == MakespanCache.UNKNOWN || makespan == i;
+            found += makespan == MakespanCache.UNKNOWN ? 0 : 1;
+        }
+        assert found > 0 && found <= 16;
+        assert cache.get(hashes[hashes.length - 1]) == hashes.length - 1;
+    }
+}
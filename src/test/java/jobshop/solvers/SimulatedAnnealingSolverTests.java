@@ -0,0 +1,26 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+public class SimulatedAnnealingSolverTests {
+
+    @Test
+    public void testSolve() throws IOException {
+        for(String instanceName : new String[] {"ft06", "la16"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances/", instanceName));
+            int greedyMakespan = new GreedySolver(true, true, false).solve(instance, -1).schedule.makespan();
+
+            long deadline = System.currentTimeMillis() + 200;
+            Result result = new SimulatedAnnealingSolver(0.5, 0.001, 0.8, 0).solve(instance, deadline);
+            // the deadline is checked every few hundred moves
+            assert System.currentTimeMillis() - deadline < 50;
+            assert result.schedule.isValid();
+            assert result.schedule.makespan() <= greedyMakespan;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.SolverMetrics;
+import jobshop.encodings.CompactResourceOrder;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Random;
+
+public class TabooSolverTests {
+
+    @Test
+    public void testParallelEvaluationFollowsSequentialTrajectory() throws IOException {
+        for(String instanceName : new String[] {"ft10", "la21", "swv01"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances/", instanceName));
+            long deadline = System.currentTimeMillis() + 60000;
+
+            for(boolean exactEvaluation : new boolean[] {false, true}) {
+                Result sequential = new TabooSolver(30, 200, true, true, false, exactEvaluation, 1).solve(instance, deadline);
+                Result parallel = new TabooSolver(30, 200, true, true, false, exactEvaluation, 4).solve(instance, deadline);
+
+                assert sequential.schedule.isValid();
+                assert parallel.schedule.equals(sequential.schedule);
+            }
+        }
+    }
+
+    @Test
+    public void testCacheDoesNotChangeTrajectory() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/la21"));
+        long deadline = System.currentTimeMillis() + 60000;
+        for(boolean exactEvaluation : new boolean[] {true, false}) {
+            SolverMetrics withoutCache = new SolverMetrics();
+            SolverMetrics withCache = new SolverMetrics();
+            Result reference = new TabooSolver(30, 500, true, true, false, exactEvaluation, 1, 0).solve(instance, deadline, withoutCache);
+            Result cached = new TabooSolver(30, 500, true, true, false, exactEvaluation, 1, 1 << 12).solve(instance, deadline, withCache);
+
+            assert cached.schedule.equals(reference.schedule);
+            assert withCache.neighbors() == withoutCache.neighbors();
+            // the taboo search comes back to solutions it has already met
+            assert exactEvaluation ? withCache.decodes() < withoutCache.decodes() : withCache.decodes() <= withoutCache.decodes();
+        }
+    }
+
+    @Test
+    public void testRelinkMovesTowardsGuidingSolution() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        CompactResourceOrder initiating = MultiStartDescentSolver.startingSolution(instance, 8, 0);
+        CompactResourceOrder guiding = MultiStartDescentSolver.startingSolution(instance, 9, 0);
+
+        IncrementalEvaluator evaluator = new IncrementalEvaluator(initiating.copy());
+        CooperativeTabooSolver.relink(evaluator, guiding, new Random(0));
+
+        assert distance(evaluator.order, guiding) < distance(initiating, guiding);
+        assert evaluator.toSchedule().isValid();
+        assert evaluator.order.toSchedule().equals(evaluator.toSchedule());
+    }
+
+    private static int distance(CompactResourceOrder a, CompactResourceOrder b) {
+        int differences = 0;
+        for(int i = 0; i < a.tasksOrderPerMachine.length; i++) {
+            if(a.tasksOrderPerMachine[i] != b.tasksOrderPerMachine[i]) {
+                differences++;
+            }
+        }
+        return differences;
+    }
+
+    @Test
+    public void testTabooListMatchesMatrix() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ta21"));
+        int numNodes = instance.numJobs * instance.numTasks;
+        int[][] reference = new int[numNodes][numNodes];
+        TabooList tabooList = new TabooList(instance);
+        Random random = new Random(0);
+
+        for(int k = 1; k < 10000; k++) {
+            // two tasks of the same machine
+            int machine = random.nextInt(instance.numMachines);
+            int first = instance.taskId(random.nextInt(instance.numJobs), 0);
+            int second = instance.taskId(random.nextInt(instance.numJobs), 0);
+            first += instance.task_with_machine(first / instance.numTasks, machine);
+            second += instance.task_with_machine(second / instance.numTasks, machine);
+
+            assert tabooList.isTaboo(first, second, k) == (k < reference[first][second]);
+            if(random.nextBoolean()) {
+                int until = k + random.nextInt(50);
+                tabooList.setTaboo(first, second, until);
+                reference[first][second] = until;
+            }
+        }
+    }
+}